@@ -0,0 +1,64 @@
+package com.productsService.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.productsService.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to serialize the response bodies of /allProducts and /getProductInfo,
+ * with an ObjectMapper configured like the one of the application.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<Product> products;
+    private Map<Long, Double> productInfo;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        products = new ArrayList<>(size);
+        productInfo = new LinkedHashMap<>();
+        for (long id = 1; id <= size; id++) {
+            products.add(new Product(id, "product " + id, "description of product " + id, id + 0.99, (int) id % 100, id % 10));
+            productInfo.put(id, id + 0.99);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeProducts() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] serializeProductInfo() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(productInfo);
+    }
+}
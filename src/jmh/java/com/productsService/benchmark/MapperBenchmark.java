@@ -0,0 +1,70 @@
+package com.productsService.benchmark;
+
+import com.productsService.business.mappers.CategoryMapper;
+import com.productsService.business.mappers.CategoryMapperImpl;
+import com.productsService.business.mappers.ProductMapper;
+import com.productsService.business.mappers.ProductMapperImpl;
+import com.productsService.business.repository.model.CategoryDAO;
+import com.productsService.business.repository.model.ProductDAO;
+import com.productsService.model.Category;
+import com.productsService.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the MapStruct conversions between the API models and the entities.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private final ProductMapper productMapper = new ProductMapperImpl();
+    private final CategoryMapper categoryMapper = new CategoryMapperImpl();
+
+    private Product product;
+    private ProductDAO productDAO;
+    private Category category;
+    private CategoryDAO categoryDAO;
+
+    @Setup
+    public void setUp() {
+        product = new Product(1L, "product", "product description", 9.99, 10, 1L);
+        productDAO = new ProductDAO(1L, "product", "product description", 9.99, 10, 1L);
+        category = new Category(1L, "category");
+        categoryDAO = new CategoryDAO(1L, "category");
+    }
+
+    @Benchmark
+    public ProductDAO productToDAO() {
+        return productMapper.productToDAO(product);
+    }
+
+    @Benchmark
+    public Product daoToProduct() {
+        return productMapper.daoToProduct(productDAO);
+    }
+
+    @Benchmark
+    public CategoryDAO categoryToDAO() {
+        return categoryMapper.categoryToDAO(category);
+    }
+
+    @Benchmark
+    public Category daoToCategory() {
+        return categoryMapper.daoToCategory(categoryDAO);
+    }
+}
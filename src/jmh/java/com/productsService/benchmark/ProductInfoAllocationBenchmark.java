@@ -0,0 +1,110 @@
+package com.productsService.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.productsService.model.ProductPriceMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Work of one /getProductInfo request served from cached prices: collecting the prices of the requested IDs
+ * into the result map and writing it as JSON, with the boxed {@code HashMap<Long, Double>} used before
+ * and with {@link ProductPriceMap}. The JSON is written to a discarding stream, so only the map and
+ * the serializer allocate. Run with the GC profiler to get the bytes allocated per request:
+ * <pre>
+ * mvn -P benchmark verify -DskipTests -Djmh.args="ProductInfoAllocation -prof gc"
+ * </pre>
+ * and compare {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductInfoAllocationBenchmark {
+
+    private static final int PRODUCT_COUNT = 20_000;
+
+    @Param({"10", "100", "1000"})
+    private int listSize;
+
+    private ObjectMapper objectMapper;
+    private Map<Long, Double> cachedPrices;
+    private List<Long> productIds;
+    private final OutputStream discard = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        cachedPrices = new HashMap<>();
+        for (long id = 1; id <= PRODUCT_COUNT; id++) {
+            cachedPrices.put(id, id + 0.99);
+        }
+        Random random = new Random(42);
+        productIds = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+            productIds.add(1L + random.nextInt(PRODUCT_COUNT));
+        }
+    }
+
+    @Benchmark
+    public Map<Long, Double> boxedMap() throws IOException {
+        List<Long> distinctIds = productIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, Double> productInfo = new HashMap<>();
+        for (Long id : distinctIds) {
+            Double price = cachedPrices.get(id);
+            if (price != null) {
+                productInfo.put(id, price);
+            }
+        }
+        objectMapper.writeValue(discard, productInfo);
+        return productInfo;
+    }
+
+    @Benchmark
+    public ProductPriceMap primitiveMap() throws IOException {
+        ProductPriceMap productInfo = new ProductPriceMap(productIds.size());
+        for (Long id : productIds) {
+            if (id != null && !productInfo.contains(id)) {
+                Double price = cachedPrices.get(id);
+                if (price != null) {
+                    productInfo.put(id.longValue(), price.doubleValue());
+                }
+            }
+        }
+        objectMapper.writeValue(discard, productInfo);
+        return productInfo;
+    }
+}
@@ -0,0 +1,99 @@
+package com.productsService.benchmark;
+
+import com.productsService.ProductsServiceApplication;
+import com.productsService.business.repository.CategoryRepository;
+import com.productsService.business.repository.ProductRepository;
+import com.productsService.business.repository.model.CategoryDAO;
+import com.productsService.business.repository.model.ProductDAO;
+import com.productsService.business.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of {@link ProductService#getProductInfo(List)} for carts of different sizes,
+ * against the real service and repositories on an embedded H2 database in MySQL mode.
+ * The product cache can be switched off to measure the database path alone.
+ * The application starts with its web server on a random port, as the Swagger configuration needs a servlet context.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductInfoBenchmark {
+
+    private static final int PRODUCT_COUNT = 20_000;
+
+    @Param({"10", "100", "1000", "5000"})
+    private int listSize;
+
+    @Param({"false", "true"})
+    private boolean cacheEnabled;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private List<Long> productIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ProductsServiceApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.flyway.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.productsService=WARN",
+                        "--products.cache.enabled=" + cacheEnabled,
+                        "--products.cache.maximum-size=" + PRODUCT_COUNT);
+        productService = context.getBean(ProductService.class);
+        insertProducts(context.getBean(CategoryRepository.class), context.getBean(ProductRepository.class));
+
+        Random random = new Random(42);
+        productIds = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+            productIds.add(1L + random.nextInt(PRODUCT_COUNT));
+        }
+    }
+
+    private void insertProducts(CategoryRepository categoryRepository, ProductRepository productRepository) {
+        Long categoryId = categoryRepository.save(new CategoryDAO(null, "benchmark")).getId();
+        List<ProductDAO> products = new ArrayList<>(PRODUCT_COUNT);
+        for (int i = 1; i <= PRODUCT_COUNT; i++) {
+            products.add(new ProductDAO(null, "product " + i, "description of product " + i, i + 0.99, i % 100, categoryId));
+        }
+        productRepository.saveAll(products);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Map<Long, Double> getProductInfo() {
+        return productService.getProductInfo(productIds);
+    }
+}
@@ -0,0 +1,159 @@
+package com.productsService.business.cache;
+
+import com.productsService.config.ReplicaRoutingDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Version counters of the catalog, bumped by the write paths once their transaction has committed,
+ * from which the read endpoints derive ETags without touching the database.
+ * <p>
+ * The ETags are weak, since a version identifies the content rather than the bytes of a response:
+ * its JSON, CBOR and gzip encoded representations share it. Tomcat also does not compress responses with strong ETags.
+ * <p>
+ * Products are versioned in {@value #PRODUCT_STRIPES} stripes by id, so memory stays bounded:
+ * a write to one product also changes the ETags of the products sharing its stripe, which only costs
+ * those a full response. The versions of the product and category collections change on every write to them.
+ * Every ETag contains an epoch chosen at startup, so ETags issued before a restart never match.
+ * <p>
+ * The counters only see writes made through this instance, like the {@link ProductCache}. To bound the staleness
+ * of the other instances as the product cache does, every ETag also contains the current period of
+ * {@code products.cache.expire-after-write}, so all ETags change when it ends.
+ * Because the version is read before the data, a response may carry newer data than its ETag, never older.
+ * For that, a request taking an ETag whose version changed less than {@code products.datasource.max-replica-lag} ago
+ * is pinned to the primary database: a replica may not have the counted writes yet, and stale data would be served,
+ * and cached, under the new ETag. Otherwise the request keeps reading from the replicas.
+ */
+@Component
+public class CatalogVersions {
+
+    static final int PRODUCT_STRIPES = 4096;
+
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    private final AtomicLongArray productStripes = new AtomicLongArray(PRODUCT_STRIPES);
+    /**
+     * Bumped by writes that change an unknown set of products, like deleting a category with its products.
+     */
+    private final AtomicLong allProducts = new AtomicLong();
+    private final AtomicLong productCollection = new AtomicLong();
+    private final AtomicLong categoryCollection = new AtomicLong();
+    /**
+     * Times in milliseconds of the latest changes of the counters above.
+     */
+    private final AtomicLongArray productStripeChanges = new AtomicLongArray(PRODUCT_STRIPES);
+    private final AtomicLong allProductsChange = new AtomicLong();
+    private final AtomicLong productCollectionChange = new AtomicLong();
+    private final AtomicLong categoryCollectionChange = new AtomicLong();
+    private final long maxReplicaLagMillis;
+    private final long periodMillis;
+
+    public CatalogVersions(@Value("${products.datasource.max-replica-lag:5s}") Duration maxReplicaLag,
+                           @Value("${products.cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.maxReplicaLagMillis = maxReplicaLag.toMillis();
+        this.periodMillis = Math.max(1, expireAfterWrite.toMillis());
+    }
+
+    public void productChanged(Long id) {
+        TransactionCallbacks.afterCommit(() -> {
+            long now = System.currentTimeMillis();
+            productStripes.incrementAndGet(stripe(id));
+            productStripeChanges.set(stripe(id), now);
+            productCollection.incrementAndGet();
+            productCollectionChange.set(now);
+        });
+    }
+
+    public void productsChanged(Collection<Long> ids) {
+        long[] changedIds = ids.stream().mapToLong(Long::longValue).toArray();
+        TransactionCallbacks.afterCommit(() -> {
+            long now = System.currentTimeMillis();
+            for (long id : changedIds) {
+                productStripes.incrementAndGet(stripe(id));
+                productStripeChanges.set(stripe(id), now);
+            }
+            productCollection.incrementAndGet();
+            productCollectionChange.set(now);
+        });
+    }
+
+    public void allProductsChanged() {
+        TransactionCallbacks.afterCommit(() -> {
+            long now = System.currentTimeMillis();
+            allProducts.incrementAndGet();
+            allProductsChange.set(now);
+            productCollection.incrementAndGet();
+            productCollectionChange.set(now);
+        });
+    }
+
+    public void categoriesChanged() {
+        TransactionCallbacks.afterCommit(() -> {
+            categoryCollection.incrementAndGet();
+            categoryCollectionChange.set(System.currentTimeMillis());
+        });
+    }
+
+    public String productETag(Long id) {
+        readFromPrimaryIfChangedSince(Math.max(allProductsChange.get(), productStripeChanges.get(stripe(id))));
+        return etag("p", allProducts.get() + "." + productStripes.get(stripe(id)));
+    }
+
+    /**
+     * @return an ETag of the prices of the given products. The sum of their stripe versions
+     * grows with every write to one of them, so it changes whenever one of the prices may have changed.
+     */
+    public String productInfoETag(Collection<Long> ids) {
+        long versionSum = 0;
+        long latestChange = allProductsChange.get();
+        for (Long id : ids) {
+            if (id != null) {
+                versionSum += productStripes.get(stripe(id));
+                latestChange = Math.max(latestChange, productStripeChanges.get(stripe(id)));
+            }
+        }
+        readFromPrimaryIfChangedSince(latestChange);
+        return etag("i", allProducts.get() + "." + versionSum);
+    }
+
+    public String productCollectionETag() {
+        readFromPrimaryIfChangedSince(productCollectionChange.get());
+        return etag("pc", Long.toString(productCollection.get()));
+    }
+
+    public String categoryCollectionETag() {
+        readFromPrimaryIfChangedSince(categoryCollectionChange.get());
+        return etag("cc", Long.toString(categoryCollection.get()));
+    }
+
+    /**
+     * @return an ETag of the category summaries, which change with both the categories and their products.
+     */
+    public String categorySummaryETag() {
+        readFromPrimaryIfChangedSince(Math.max(categoryCollectionChange.get(), productCollectionChange.get()));
+        return etag("cs", categoryCollection.get() + "." + productCollection.get());
+    }
+
+    /**
+     * Pins the current request to the primary if the change at the given time may not have reached the replicas yet.
+     */
+    private void readFromPrimaryIfChangedSince(long changeTime) {
+        if (System.currentTimeMillis() - changeTime < maxReplicaLagMillis) {
+            ReplicaRoutingDataSource.pinRequestToPrimary();
+        }
+    }
+
+    private String etag(String kind, String version) {
+        long period = System.currentTimeMillis() / periodMillis;
+        return "W/\"" + kind + "-" + epoch + "-" + period + "-" + version + "\"";
+    }
+
+    private static int stripe(long id) {
+        return Long.hashCode(id * 0x9E3779B97F4A7C15L) & (PRODUCT_STRIPES - 1);
+    }
+}
@@ -0,0 +1,84 @@
+package com.productsService.business.cache;
+
+import com.productsService.business.repository.CategoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * IDs of the existing categories, so product writes can check their category without a query.
+ * Loaded once the application is ready and kept up to date by the category write paths after their commit.
+ * <p>
+ * Only a hit can be trusted: a miss may be a category created by another instance or not loaded yet,
+ * so callers check the database on a miss. A category deleted by another instance stays registered,
+ * the foreign key of the products table then rejects the write.
+ * <p>
+ * A category being deleted is unregistered at once and reported by {@link #isDeleting(Long)},
+ * so no products are added to it while its products are deleted.
+ */
+@Slf4j
+@Component
+public class CategoryIdRegistry {
+
+    private final Set<Long> categoryIds = ConcurrentHashMap.newKeySet();
+    private final Set<Long> deletingIds = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<Long> existingIds = categoryRepository.findAllIds();
+        categoryIds.addAll(existingIds);
+        log.info("Loaded {} category IDs", existingIds.size());
+    }
+
+    public boolean contains(Long id) {
+        return categoryIds.contains(id);
+    }
+
+    public boolean isDeleting(Long id) {
+        return deletingIds.contains(id);
+    }
+
+    public void add(Long id) {
+        TransactionCallbacks.afterCommit(() -> {
+            if (!deletingIds.contains(id)) {
+                categoryIds.add(id);
+            }
+        });
+    }
+
+    public void addAll(Collection<Long> ids) {
+        List<Long> addedIds = new ArrayList<>(ids);
+        TransactionCallbacks.afterCommit(() -> categoryIds.addAll(addedIds));
+    }
+
+    public void remove(Long id) {
+        TransactionCallbacks.afterCommit(() -> categoryIds.remove(id));
+    }
+
+    /**
+     * Unregisters the category right away, before its deletion commits, and keeps it from being registered again
+     * until {@link #deletionFinished(Long)}.
+     */
+    public void markDeleting(Long id) {
+        deletingIds.add(id);
+        categoryIds.remove(id);
+    }
+
+    /**
+     * Ends the deletion of the category. If it failed, the category is registered again on its next lookup.
+     */
+    public void deletionFinished(Long id) {
+        deletingIds.remove(id);
+    }
+}
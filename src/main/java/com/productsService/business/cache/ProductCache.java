@@ -0,0 +1,142 @@
+package com.productsService.business.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.productsService.model.Product;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded in-process cache of products and their prices, sitting in front of the product repository.
+ * Entries are evicted by size (with Caffeine's frequency-aware admission) and by age,
+ * and are invalidated by the product and category write paths.
+ * Cached Product instances are shared between callers and must not be modified.
+ * Hit, miss and eviction statistics of both caches are published as cache metrics.
+ */
+@Slf4j
+@Component
+public class ProductCache implements MeterBinder {
+
+    private final boolean enabled;
+    private final Cache<Long, Product> products;
+    private final Cache<Long, Double> prices;
+    /**
+     * Incremented on every invalidation, so a value read from the database before a concurrent
+     * write is not put back into the cache after that write invalidated it.
+     * The stamp is checked again after each put to close the window between check and put.
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ProductCache(@Value("${products.cache.enabled:true}") boolean enabled,
+                        @Value("${products.cache.maximum-size:10000}") long maximumSize,
+                        @Value("${products.cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.enabled = enabled;
+        this.products = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.prices = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        log.info("Product cache enabled: {}, maximum size: {}, expire after write: {}", enabled, maximumSize, expireAfterWrite);
+    }
+
+    /**
+     * Returns the stamp to pass to the put methods for values about to be read from the database.
+     */
+    public long stamp() {
+        return invalidations.get();
+    }
+
+    public Product getProduct(Long id) {
+        return enabled ? products.getIfPresent(id) : null;
+    }
+
+    public void putProduct(Product product, long stamp) {
+        if (enabled && product.getId() != null && stamp == invalidations.get()) {
+            products.put(product.getId(), product);
+            prices.put(product.getId(), product.getPrice());
+            if (stamp != invalidations.get()) {
+                products.invalidate(product.getId());
+                prices.invalidate(product.getId());
+            }
+        }
+    }
+
+    /**
+     * @return the cached price of the product, or empty if it is not cached.
+     */
+    public OptionalDouble getPrice(Long id) {
+        Double price = enabled ? prices.getIfPresent(id) : null;
+        return price == null ? OptionalDouble.empty() : OptionalDouble.of(price);
+    }
+
+    /**
+     * @return the cached prices of the given product IDs, missing IDs are not part of the map.
+     */
+    public Map<Long, Double> getPrices(Collection<Long> ids) {
+        return enabled ? prices.getAllPresent(ids) : Collections.emptyMap();
+    }
+
+    public void putPrices(Map<Long, Double> productPrices, long stamp) {
+        if (enabled && stamp == invalidations.get()) {
+            prices.putAll(productPrices);
+            if (stamp != invalidations.get()) {
+                prices.invalidateAll(productPrices.keySet());
+            }
+        }
+    }
+
+    public void invalidate(Long id) {
+        invalidations.incrementAndGet();
+        products.invalidate(id);
+        prices.invalidate(id);
+    }
+
+    /**
+     * Invalidates the products once the current transaction has committed, so a concurrent read
+     * cannot put back the values the transaction is about to change. Without a transaction they are invalidated at once.
+     */
+    public void invalidateAfterCommit(Collection<Long> ids) {
+        List<Long> invalidatedIds = new ArrayList<>(ids);
+        TransactionCallbacks.afterCommit(() -> invalidatedIds.forEach(this::invalidate));
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        products.invalidateAll();
+        prices.invalidateAll();
+        log.info("Product cache cleared");
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, products, "products");
+        CaffeineCacheMetrics.monitor(registry, prices, "productPrices");
+    }
+
+    public CacheStats productStats() {
+        return products.stats();
+    }
+
+    public CacheStats priceStats() {
+        return prices.stats();
+    }
+}
@@ -0,0 +1,206 @@
+package com.productsService.business.cache;
+
+import com.productsService.business.repository.model.ProductDAO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prices of all products in a memory-mapped {@link ProductSnapshotFile}, so price lookups and existence checks
+ * keep working without the database and are warm right after a restart.
+ * <p>
+ * The snapshot is rewritten from the database every rotate interval, starting once the application is ready;
+ * until the first rotation the file left by the previous run is served.
+ * Product writes made since the snapshot was taken are kept in a small overlay: the new price of a saved product,
+ * or a marker for a product whose price is unknown, like a patched or deleted one.
+ * Products of a deleted category are ignored. The overlay is emptied by the next rotation.
+ * <p>
+ * Like the {@link ProductCache}, only writes made through this instance reach the overlay, and only a hit
+ * can be trusted: callers read missing products from the database.
+ * Quantities are stored as of the snapshot and are not served.
+ */
+@Slf4j
+@Component
+public class ProductSnapshot implements DisposableBean {
+
+    private final boolean enabled;
+    private final Path path;
+    private final Duration rotateInterval;
+    private final ProductSnapshotWriter writer;
+
+    private volatile ProductSnapshotFile snapshotFile;
+    /**
+     * Price by product id, a null price marks a product to be read from the database.
+     */
+    private final Map<Long, OverlayEntry> overlay = new ConcurrentHashMap<>();
+    /**
+     * Sequence number of the removal by category id.
+     */
+    private final Map<Long, Long> removedCategories = new ConcurrentHashMap<>();
+    /**
+     * Numbers the overlay changes, so a rotation only drops the changes made before it started reading.
+     */
+    private final AtomicLong sequence = new AtomicLong();
+    private ScheduledExecutorService rotationExecutor;
+
+    public ProductSnapshot(@Value("${products.snapshot.enabled:false}") boolean enabled,
+                           @Value("${products.snapshot.path:data/products.snapshot}") String path,
+                           @Value("${products.snapshot.rotate-interval:10m}") Duration rotateInterval,
+                           ProductSnapshotWriter writer) {
+        this.enabled = enabled;
+        this.path = Paths.get(path);
+        this.rotateInterval = rotateInterval;
+        this.writer = writer;
+        log.info("Product snapshot enabled: {}, path: {}, rotate interval: {}", enabled, this.path, rotateInterval);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        if (Files.exists(path)) {
+            try {
+                snapshotFile = ProductSnapshotFile.map(path);
+                log.info("Mapped product snapshot {} with {} products", path, snapshotFile.size());
+            } catch (IOException e) {
+                log.warn("Ignoring unreadable product snapshot {}", path, e);
+            }
+        }
+        rotationExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        rotationExecutor.scheduleWithFixedDelay(this::rotate, 0, rotateInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes a new snapshot next to the current one and replaces it, keeping the current one if that fails.
+     * Overlay changes made while the database was read are kept, as they may be missing from the new snapshot.
+     */
+    public synchronized void rotate() {
+        long startSequence = sequence.get();
+        Path newFile = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            long written = writer.write(newFile);
+            Files.move(newFile, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            snapshotFile = ProductSnapshotFile.map(path);
+            overlay.values().removeIf(entry -> entry.sequence <= startSequence);
+            removedCategories.values().removeIf(removalSequence -> removalSequence <= startSequence);
+            log.info("Rotated product snapshot {} with {} products, {} overlay entries left", path, written, overlay.size());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to rotate product snapshot {}, keeping the previous one", path, e);
+        }
+    }
+
+    /**
+     * @return the price of the product, or empty if it has to be read from the database.
+     */
+    public OptionalDouble findPrice(Long id) {
+        if (!enabled) {
+            return OptionalDouble.empty();
+        }
+        OverlayEntry entry = overlay.get(id);
+        if (entry != null) {
+            if (entry.price == null || isCategoryRemoved(entry.categoryId)) {
+                return OptionalDouble.empty();
+            }
+            return OptionalDouble.of(entry.price);
+        }
+        ProductSnapshotFile file = snapshotFile;
+        if (file == null) {
+            return OptionalDouble.empty();
+        }
+        int index = file.indexOf(id);
+        if (index < 0 || isCategoryRemoved(file.categoryId(index))) {
+            return OptionalDouble.empty();
+        }
+        return OptionalDouble.of(file.price(index));
+    }
+
+    /**
+     * @return true if the product exists, false if it has to be checked in the database.
+     */
+    public boolean contains(Long id) {
+        return findPrice(id).isPresent();
+    }
+
+    /**
+     * Records the prices and categories of saved products once the current transaction has committed.
+     */
+    public void productsSaved(Collection<ProductDAO> products) {
+        if (enabled) {
+            Map<Long, OverlayEntry> savedEntries = new HashMap<>();
+            for (ProductDAO product : products) {
+                savedEntries.put(product.getId(), new OverlayEntry(product.getPrice(), product.getCategoryId(), 0));
+            }
+            TransactionCallbacks.afterCommit(() -> savedEntries.forEach((id, entry) ->
+                    overlay.put(id, new OverlayEntry(entry.price, entry.categoryId, sequence.incrementAndGet()))));
+        }
+    }
+
+    /**
+     * Marks the product to be read from the database once the current transaction has committed.
+     */
+    public void productChanged(Long id) {
+        if (enabled) {
+            TransactionCallbacks.afterCommit(() -> overlay.put(id, new OverlayEntry(null, null, sequence.incrementAndGet())));
+        }
+    }
+
+    /**
+     * Ignores the products of the category, in the file and in the overlay, until a rotation started after the latest call.
+     * Called before its products are deleted and again once they are, as that may take several transactions.
+     */
+    public void categoryRemoved(Long categoryId) {
+        if (enabled) {
+            removedCategories.put(categoryId, sequence.incrementAndGet());
+        }
+    }
+
+    private boolean isCategoryRemoved(Long categoryId) {
+        return categoryId != null && !removedCategories.isEmpty() && removedCategories.containsKey(categoryId);
+    }
+
+    @Override
+    public void destroy() {
+        if (rotationExecutor != null) {
+            rotationExecutor.shutdownNow();
+        }
+    }
+
+    private static final class OverlayEntry {
+        private final Double price;
+        private final Long categoryId;
+        private final long sequence;
+
+        private OverlayEntry(Double price, Long categoryId, long sequence) {
+            this.price = price;
+            this.categoryId = categoryId;
+            this.sequence = sequence;
+        }
+    }
+}
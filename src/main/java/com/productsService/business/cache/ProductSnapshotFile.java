@@ -0,0 +1,144 @@
+package com.productsService.business.cache;
+
+import com.productsService.business.repository.model.ProductDAO;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+
+/**
+ * Binary snapshot file of the products, memory-mapped for lookups by binary search.
+ * <p>
+ * The file starts with a {@value #HEADER_BYTES} byte header (magic number, format version and record count),
+ * followed by one {@value #RECORD_BYTES} byte record per product in ascending id order:
+ * id (long), price (double), quantity (int) and category id (long).
+ * Records are read straight from the mapping, so a lookup allocates no objects.
+ */
+final class ProductSnapshotFile {
+
+    static final int MAGIC = 0x50534E50;
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_BYTES = 28;
+
+    private static final int WRITE_BUFFER_RECORDS = 4096;
+
+    private final MappedByteBuffer buffer;
+    private final int size;
+
+    private ProductSnapshotFile(MappedByteBuffer buffer, int size) {
+        this.buffer = buffer;
+        this.size = size;
+    }
+
+    /**
+     * Maps the file read-only. The mapping stays valid after the file is replaced or deleted
+     * and is released once it is no longer referenced.
+     *
+     * @throws IOException if the file cannot be read or is not a complete snapshot.
+     */
+    static ProductSnapshotFile map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES || fileSize > Integer.MAX_VALUE) {
+                throw new IOException("Invalid product snapshot size " + fileSize + " of " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            long records = buffer.getLong(8);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION
+                    || fileSize != HEADER_BYTES + records * RECORD_BYTES) {
+                throw new IOException("Invalid product snapshot header of " + file);
+            }
+            return new ProductSnapshotFile(buffer, (int) records);
+        }
+    }
+
+    /**
+     * Writes the products, which must come in ascending id order, and forces the file to disk.
+     * The record count is written last, so an interrupted write never passes {@link #map(Path)}.
+     *
+     * @return the number of products written.
+     */
+    static long write(Path file, Iterator<ProductDAO> products) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_RECORDS * RECORD_BYTES);
+            channel.position(HEADER_BYTES);
+            long records = 0;
+            long previousId = Long.MIN_VALUE;
+            while (products.hasNext()) {
+                ProductDAO product = products.next();
+                if (product.getId() <= previousId) {
+                    throw new IllegalStateException("Products are not in ascending id order at id " + product.getId());
+                }
+                previousId = product.getId();
+                if (buffer.remaining() < RECORD_BYTES) {
+                    writeFully(channel, buffer);
+                }
+                buffer.putLong(product.getId())
+                        .putDouble(product.getPrice())
+                        .putInt(product.getQuantity())
+                        .putLong(product.getCategoryId());
+                records++;
+            }
+            writeFully(channel, buffer);
+            buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(records);
+            channel.position(0);
+            writeFully(channel, buffer);
+            channel.force(false);
+            return records;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the index of the record of the product, or -1 if it is not part of the snapshot.
+     */
+    int indexOf(long id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleId = buffer.getLong(offset(middle));
+            if (middleId < id) {
+                low = middle + 1;
+            } else if (middleId > id) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    double price(int index) {
+        return buffer.getDouble(offset(index) + 8);
+    }
+
+    int quantity(int index) {
+        return buffer.getInt(offset(index) + 16);
+    }
+
+    long categoryId(int index) {
+        return buffer.getLong(offset(index) + 20);
+    }
+
+    private static int offset(int index) {
+        return HEADER_BYTES + index * RECORD_BYTES;
+    }
+}
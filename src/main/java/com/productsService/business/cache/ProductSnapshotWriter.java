@@ -0,0 +1,50 @@
+package com.productsService.business.cache;
+
+import com.productsService.business.repository.ProductRepository;
+import com.productsService.business.repository.model.ProductDAO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Dumps every product from the database into a {@link ProductSnapshotFile}.
+ */
+@Component
+public class ProductSnapshotWriter {
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Streams the products in a read-write transaction, so they are read from the primary database
+     * even when read-only transactions go to a replica: the snapshot must contain every write
+     * committed before it started. Each entity is detached once read.
+     *
+     * @return the number of products written.
+     */
+    public long write(Path file) throws IOException {
+        try {
+            Long records = new TransactionTemplate(transactionManager).execute(status -> {
+                try (Stream<ProductDAO> products = productRepository.streamAllOrderedById()) {
+                    return ProductSnapshotFile.write(file, products.peek(entityManager::detach).iterator());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return records == null ? 0 : records;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.productsService.business.events;
+
+import com.productsService.model.CatalogChange;
+
+/**
+ * Receives the changes recorded by the {@link CatalogChangeLog}. Both methods are called while the log is locked,
+ * so they must hand the change over without blocking.
+ */
+public interface CatalogChangeListener {
+
+    void changed(CatalogChange change);
+
+    /**
+     * Called on subscription instead of replaying the missed changes when they are no longer retained,
+     * so the subscriber has to reload the catalog.
+     */
+    void changesLost();
+}
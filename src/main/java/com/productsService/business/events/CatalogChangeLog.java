@@ -0,0 +1,168 @@
+package com.productsService.business.events;
+
+import com.productsService.model.CatalogChange;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Numbers the committed changes of the catalog and keeps the last {@code products.changes.history-size} of them,
+ * so subscribers that reconnect can be sent the changes they missed.
+ * <p>
+ * Versions continue from the startup time in milliseconds, so the versions of a restarted instance are higher
+ * than those it issued before, unless it averaged more than one change per millisecond.
+ * Like the {@link com.productsService.business.cache.CatalogVersions}, only writes made through this instance are seen,
+ * so versions are only meaningful to the instance that issued them: subscribers get them as event ids prefixed
+ * with an epoch chosen at startup, and an event id of another instance or run resumes nothing.
+ * <p>
+ * The lock only guards the numbering and the history. Listeners are called outside it: the calls are queued
+ * in version order and run by whichever thread finds the delivery free, so no thread waits for a listener
+ * and every listener still gets the changes in version order, after the changes replayed to it.
+ */
+@Slf4j
+@Component
+public class CatalogChangeLog {
+
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    private final CatalogChange[] history;
+    private final long startVersion;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Queue<Runnable> deliveries = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock deliveryLock = new ReentrantLock();
+    /**
+     * Only used by the thread running the deliveries.
+     */
+    private final List<CatalogChangeListener> listeners = new ArrayList<>();
+    private volatile long latestVersion;
+
+    public CatalogChangeLog(@Value("${products.changes.history-size:10000}") int historySize) {
+        this.history = new CatalogChange[historySize];
+        this.startVersion = System.currentTimeMillis();
+        this.latestVersion = startVersion;
+        log.info("Catalog change history size: {}, start version: {}", historySize, startVersion);
+    }
+
+    /**
+     * Records the change after the transaction it was published in has committed, or at once without a transaction,
+     * and passes it to the listeners. Versions are given in the order the changes are recorded, which is not
+     * necessarily the commit order: the after-commit callbacks of concurrent transactions may run in reverse order.
+     * The entity version of a change orders the changes of one product.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void record(CatalogChangedEvent event) {
+        lock.lock();
+        try {
+            CatalogChange change = new CatalogChange(latestVersion + 1, event.getEntity(), event.getType(),
+                    event.getId(), event.getEntityVersion(), event.getFields());
+            history[slot(change.getVersion())] = change;
+            latestVersion = change.getVersion();
+            deliveries.add(() -> {
+                for (CatalogChangeListener listener : listeners) {
+                    listener.changed(change);
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+        deliver();
+    }
+
+    /**
+     * Adds the listener and first passes it the retained changes after the given version.
+     *
+     * @param afterVersion the version of the last change the listener has seen, or null to only pass new changes.
+     * @return false if the changes after the version are no longer retained, in which case
+     * {@link CatalogChangeListener#changesLost()} is called instead.
+     */
+    public boolean subscribe(Long afterVersion, CatalogChangeListener listener) {
+        boolean retained;
+        lock.lock();
+        try {
+            List<CatalogChange> missedChanges = new ArrayList<>();
+            long oldestRetainedVersion = Math.max(startVersion + 1, latestVersion - history.length + 1);
+            retained = afterVersion == null
+                    || (afterVersion <= latestVersion && afterVersion >= oldestRetainedVersion - 1);
+            if (afterVersion != null && retained) {
+                for (long version = afterVersion + 1; version <= latestVersion; version++) {
+                    missedChanges.add(history[slot(version)]);
+                }
+            }
+            deliveries.add(() -> {
+                listeners.add(listener);
+                if (!retained) {
+                    listener.changesLost();
+                }
+                for (CatalogChange change : missedChanges) {
+                    listener.changed(change);
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+        deliver();
+        return retained;
+    }
+
+    /**
+     * @return the id of the Server-Sent Event of the change with the version.
+     */
+    public String eventId(long version) {
+        return epoch + "-" + version;
+    }
+
+    /**
+     * @return the version of an event id issued by this instance, or -1 for one issued by another instance
+     * or before a restart, for which no change is retained.
+     * @throws IllegalArgumentException if it is not an event id.
+     */
+    public long versionOf(String eventId) {
+        int separator = eventId.lastIndexOf('-');
+        if (separator <= 0) {
+            throw new IllegalArgumentException("Not an event id: " + eventId);
+        }
+        long version = Long.parseLong(eventId.substring(separator + 1));
+        return eventId.substring(0, separator).equals(epoch) ? version : -1L;
+    }
+
+    public void unsubscribe(CatalogChangeListener listener) {
+        deliveries.add(() -> listeners.remove(listener));
+        deliver();
+    }
+
+    public long getLatestVersion() {
+        return latestVersion;
+    }
+
+    /**
+     * Runs the queued deliveries unless they are already running, in which case the running loop,
+     * possibly further up the stack of a listener recording a change, also runs those queued meanwhile.
+     */
+    private void deliver() {
+        do {
+            if (deliveryLock.isHeldByCurrentThread() || !deliveryLock.tryLock()) {
+                return;
+            }
+            try {
+                Runnable delivery;
+                while ((delivery = deliveries.poll()) != null) {
+                    delivery.run();
+                }
+            } finally {
+                deliveryLock.unlock();
+            }
+        } while (!deliveries.isEmpty());
+    }
+
+    private int slot(long version) {
+        return (int) (version % history.length);
+    }
+}
@@ -0,0 +1,59 @@
+package com.productsService.business.events;
+
+import com.productsService.model.CatalogChangeType;
+import com.productsService.model.CatalogEntity;
+import lombok.Data;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Published by the services for every product or category they write.
+ * The {@link CatalogChangeLog} records it once the transaction it was published in has committed.
+ * <p>
+ * Products carry the {@code @Version} they were written with, which orders the changes of one product
+ * even when the log records concurrent transactions in another order than they committed in.
+ */
+@Data
+public class CatalogChangedEvent {
+    private final CatalogEntity entity;
+    private final CatalogChangeType type;
+    private final Long id;
+    private final Long entityVersion;
+    private final Map<String, Object> fields;
+
+    public static CatalogChangedEvent created(CatalogEntity entity, Long id, Map<String, Object> fields) {
+        return created(entity, id, null, fields);
+    }
+
+    public static CatalogChangedEvent created(CatalogEntity entity, Long id, Long entityVersion, Map<String, Object> fields) {
+        return new CatalogChangedEvent(entity, CatalogChangeType.CREATED, id, entityVersion, fields);
+    }
+
+    public static CatalogChangedEvent updated(CatalogEntity entity, Long id, Map<String, Object> fields) {
+        return updated(entity, id, null, fields);
+    }
+
+    public static CatalogChangedEvent updated(CatalogEntity entity, Long id, Long entityVersion, Map<String, Object> fields) {
+        return new CatalogChangedEvent(entity, CatalogChangeType.UPDATED, id, entityVersion, fields);
+    }
+
+    public static CatalogChangedEvent deleted(CatalogEntity entity, Long id) {
+        return new CatalogChangedEvent(entity, CatalogChangeType.DELETED, id, null, Collections.emptyMap());
+    }
+
+    /**
+     * @return the fields of the after values that differ from the before values.
+     */
+    public static Map<String, Object> changedFields(Map<String, Object> before, Map<String, Object> after) {
+        Map<String, Object> changedFields = new LinkedHashMap<>();
+        after.forEach((field, value) -> {
+            if (!Objects.equals(before.get(field), value)) {
+                changedFields.put(field, value);
+            }
+        });
+        return changedFields;
+    }
+}
@@ -1,11 +1,14 @@
 package com.productsService.business.exceptions;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
@@ -33,4 +36,36 @@ public class CustomizedResponseEntityExceptionHandler extends ResponseEntityExce
         log.info("Seems like validation issue occurred");
         return ResponseEntity.status(status).body(errorResponse);
     }
+
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<Object> handleInsufficientStock(InsufficientStockException ex, WebRequest request) {
+        log.info("Insufficient stock of Product with ID: {}", ex.getProductId());
+        return conflict(ex.getMessage(), request);
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Object> handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException ex, WebRequest request) {
+        log.info("Concurrent update of {} with ID: {}", ex.getPersistentClassName(), ex.getIdentifier());
+        return conflict("The entry was changed concurrently, reload it and try again", request);
+    }
+
+    /**
+     * A constraint of the database rejected the write, like the foreign key of a product
+     * whose category was deleted after it was checked.
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Object> handleDataIntegrityViolation(DataIntegrityViolationException ex, WebRequest request) {
+        log.info("Write rejected by a database constraint: {}", ex.getMostSpecificCause().getMessage());
+        return conflict("The entry conflicts with the stored data, e.g. its category no longer exists", request);
+    }
+
+    private ResponseEntity<Object> conflict(String message, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
+                HttpStatus.CONFLICT.value(),
+                HttpStatus.CONFLICT.getReasonPhrase(),
+                message,
+                request.getDescription(false));
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
 }
@@ -0,0 +1,18 @@
+package com.productsService.business.exceptions;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a reservation cannot take the requested quantity from the stock of a product.
+ */
+@Getter
+public class InsufficientStockException extends RuntimeException {
+
+    private final Long productId;
+
+    public InsufficientStockException(Long productId, int quantity) {
+        super("Cannot reserve " + quantity + " of Product with ID: " + productId
+                + ", the product does not exist or has not enough stock");
+        this.productId = productId;
+    }
+}
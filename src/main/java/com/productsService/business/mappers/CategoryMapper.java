@@ -3,10 +3,12 @@ package com.productsService.business.mappers;
 import com.productsService.business.repository.model.CategoryDAO;
 import com.productsService.model.Category;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper (componentModel = "spring")
 public interface CategoryMapper {
 
+    @Mapping(target = "products", ignore = true)
     CategoryDAO categoryToDAO (Category category);
 
     Category daoToCategory (CategoryDAO categoryDAO);
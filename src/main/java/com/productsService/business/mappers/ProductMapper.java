@@ -3,10 +3,12 @@ package com.productsService.business.mappers;
 import com.productsService.business.repository.model.ProductDAO;
 import com.productsService.model.Product;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring")
 public interface ProductMapper {
 
+    @Mapping(target = "version", ignore = true)
     ProductDAO productToDAO (Product product);
 
     Product daoToProduct (ProductDAO productDAO);
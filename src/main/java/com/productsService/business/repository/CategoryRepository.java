@@ -1,11 +1,68 @@
 package com.productsService.business.repository;
 
 import com.productsService.business.repository.model.CategoryDAO;
+import com.productsService.business.repository.model.CategorySummaryView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<CategoryDAO,Long> {
 
+    /**
+     * Served from the query cache until the category table changes.
+     */
+    @Override
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = CategoryDAO.QUERY_CACHE_REGION)})
+    List<CategoryDAO> findAll();
+
+    /**
+     * Served from the query cache until the category table changes.
+     */
+    @Transactional(readOnly = true)
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = CategoryDAO.QUERY_CACHE_REGION)})
     boolean existsByName(String name);
+
+    List<CategoryDAO> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    /**
+     * Renames the category with a single UPDATE statement, without reading it first.
+     *
+     * @return 1 if the category was renamed, 0 if it does not exist.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE CategoryDAO c SET c.name = :name WHERE c.id = :id")
+    int updateName(@Param("id") Long id, @Param("name") String name);
+
+    /**
+     * Aggregates the products of every category in one query, instead of loading each products collection.
+     */
+    @Query("SELECT c.id AS id, c.name AS name, COUNT(p.id) AS productCount, SUM(p.quantity) AS totalQuantity, "
+            + "MIN(p.price) AS minPrice, MAX(p.price) AS maxPrice "
+            + "FROM CategoryDAO c LEFT JOIN ProductDAO p ON p.categoryId = c.id "
+            + "GROUP BY c.id, c.name ORDER BY c.id")
+    List<CategorySummaryView> findSummaries();
+
+    @Query("SELECT c.id FROM CategoryDAO c")
+    List<Long> findAllIds();
+
+    @Query("SELECT c.id FROM CategoryDAO c WHERE c.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT c.name FROM CategoryDAO c WHERE c.name IN :names")
+    List<String> findExistingNames(@Param("names") Collection<String> names);
 }
@@ -1,12 +1,98 @@
 package com.productsService.business.repository;
 
 import com.productsService.business.repository.model.ProductDAO;
+import com.productsService.business.repository.model.ProductPriceView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<ProductDAO,Long> {
+public interface ProductRepository extends JpaRepository<ProductDAO,Long>, ProductRepositoryCustom {
 
+    int STREAM_FETCH_SIZE = 1000;
+
+    /**
+     * Reads id and price of every existing product from the given ids in one query,
+     * served by the idx_products_id_price covering index.
+     * Read-only, so the lookups of uncached prices can be served by a replica.
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT p.id AS id, p.price AS price FROM ProductDAO p WHERE p.id IN :ids")
+    List<ProductPriceView> findPricesByIdIn(@Param("ids") Collection<Long> ids);
+
+    List<ProductDAO> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    /**
+     * Products whose name starts with the prefix, read in name order from the idx_products_name index.
+     */
+    @Transactional(readOnly = true)
+    List<ProductDAO> findByNameStartingWithOrderByNameAscIdAsc(String prefix, Pageable pageable);
+
+    /**
+     * Products matching the MySQL boolean mode full-text query over name and description,
+     * served by the idx_products_name_description index, the most relevant first.
+     */
+    @Transactional(readOnly = true)
+    @Query(value = "SELECT * FROM products WHERE MATCH (name, description) AGAINST (:query IN BOOLEAN MODE) "
+            + "ORDER BY MATCH (name, description) AGAINST (:query IN BOOLEAN MODE) DESC, id",
+            nativeQuery = true)
+    List<ProductDAO> searchFullText(@Param("query") String query, Pageable pageable);
+
+    /**
+     * Streams all products ordered by id, reading {@value #STREAM_FETCH_SIZE} rows per round-trip.
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true")})
+    @Query("SELECT p FROM ProductDAO p ORDER BY p.id")
+    Stream<ProductDAO> streamAllOrderedById();
+
+    /**
+     * Deletes at most {@code limit} products of the category in a transaction of its own,
+     * so row locks are held only for one chunk at a time.
+     *
+     * @return number of deleted products, less than {@code limit} once the category has no products left.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM products WHERE category_id = :categoryId LIMIT :limit", nativeQuery = true)
+    int deleteChunkByCategoryId(@Param("categoryId") Long categoryId, @Param("limit") int limit);
+
+    /**
+     * Read in the transaction of a write to the product, it is the version that write gave the product.
+     */
+    @Query("SELECT p.version FROM ProductDAO p WHERE p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Takes the quantity from the stock of the product in one statement, only if enough stock is left.
+     *
+     * @return 1 if the stock was reserved, 0 if the product does not exist or has not enough stock.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE VERSIONED ProductDAO p SET p.quantity = p.quantity - :quantity WHERE p.id = :id AND p.quantity >= :quantity")
+    int reserveStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    /**
+     * Returns the quantity to the stock of the product in one statement.
+     *
+     * @return 1 if the stock was released, 0 if the product does not exist.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE VERSIONED ProductDAO p SET p.quantity = p.quantity + :quantity WHERE p.id = :id")
+    int releaseStock(@Param("id") Long id, @Param("quantity") int quantity);
 }
@@ -0,0 +1,27 @@
+package com.productsService.business.repository;
+
+import com.productsService.business.repository.model.ProductDAO;
+import com.productsService.model.ProductCursor;
+import com.productsService.model.ProductFilter;
+import com.productsService.model.ProductPatch;
+
+import java.util.List;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Updates only the fields set in the patch with a single UPDATE statement, without reading the product,
+     * and increments its version, so concurrent full edits of the product fail instead of overwriting the change.
+     *
+     * @return 1 if the product was updated, 0 if it does not exist.
+     */
+    int patch(Long id, ProductPatch patch);
+
+    /**
+     * Reads the products matching the filter in its sort order, ties broken by id, starting after the cursor.
+     *
+     * @param after the position after which the page starts, null for the first page.
+     * @return at most limit products.
+     */
+    List<ProductDAO> findFiltered(ProductFilter filter, ProductCursor after, int limit);
+}
@@ -0,0 +1,101 @@
+package com.productsService.business.repository;
+
+import com.productsService.business.repository.model.ProductDAO;
+import com.productsService.model.ProductCursor;
+import com.productsService.model.ProductFilter;
+import com.productsService.model.ProductPatch;
+import com.productsService.model.ProductSort;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int patch(Long id, ProductPatch patch) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<ProductDAO> update = criteriaBuilder.createCriteriaUpdate(ProductDAO.class);
+        Root<ProductDAO> product = update.from(ProductDAO.class);
+        if (patch.getName() != null) {
+            update.set(product.<String>get("name"), patch.getName());
+        }
+        if (patch.getDescription() != null) {
+            update.set(product.<String>get("description"), patch.getDescription());
+        }
+        if (patch.getPrice() != null) {
+            update.set(product.<Double>get("price"), patch.getPrice());
+        }
+        if (patch.getQuantity() != null) {
+            update.set(product.<Integer>get("quantity"), patch.getQuantity());
+        }
+        if (patch.getCategoryId() != null) {
+            update.set(product.<Long>get("categoryId"), patch.getCategoryId());
+        }
+        update.set(product.<Long>get("version"), criteriaBuilder.sum(product.<Long>get("version"), 1L));
+        update.where(criteriaBuilder.equal(product.get("id"), id));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    /**
+     * The keyset condition is written as {@code sort >= value AND (sort > value OR id > afterId)},
+     * so the leading range can be read from the (category_id, price) or (category_id, name) index.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductDAO> findFiltered(ProductFilter filter, ProductCursor after, int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductDAO> query = criteriaBuilder.createQuery(ProductDAO.class);
+        Root<ProductDAO> product = query.from(ProductDAO.class);
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getCategoryId() != null) {
+            predicates.add(criteriaBuilder.equal(product.get("categoryId"), filter.getCategoryId()));
+        }
+        if (filter.getMinPrice() != null) {
+            predicates.add(criteriaBuilder.greaterThanOrEqualTo(product.<Double>get("price"), filter.getMinPrice()));
+        }
+        if (filter.getMaxPrice() != null) {
+            predicates.add(criteriaBuilder.lessThanOrEqualTo(product.<Double>get("price"), filter.getMaxPrice()));
+        }
+        if (filter.isInStock()) {
+            predicates.add(criteriaBuilder.greaterThan(product.<Integer>get("quantity"), 0));
+        }
+        Path<Long> id = product.get("id");
+        if (filter.getSort() == ProductSort.NAME) {
+            Path<String> name = product.get("name");
+            if (after != null) {
+                predicates.add(criteriaBuilder.greaterThanOrEqualTo(name, after.getSortValue()));
+                predicates.add(criteriaBuilder.or(
+                        criteriaBuilder.greaterThan(name, after.getSortValue()),
+                        criteriaBuilder.greaterThan(id, after.getId())));
+            }
+            query.orderBy(criteriaBuilder.asc(name), criteriaBuilder.asc(id));
+        } else {
+            Path<Double> price = product.get("price");
+            if (after != null) {
+                Double afterPrice = Double.valueOf(after.getSortValue());
+                predicates.add(criteriaBuilder.greaterThanOrEqualTo(price, afterPrice));
+                predicates.add(criteriaBuilder.or(
+                        criteriaBuilder.greaterThan(price, afterPrice),
+                        criteriaBuilder.greaterThan(id, after.getId())));
+            }
+            query.orderBy(criteriaBuilder.asc(price), criteriaBuilder.asc(id));
+        }
+        query.select(product).where(predicates.toArray(new Predicate[0]));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -0,0 +1,65 @@
+package com.productsService.business.repository;
+
+import com.productsService.business.repository.model.ProductDAO;
+import io.r2dbc.spi.Row;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Non-blocking reads of the products table over R2DBC, for the reactive read path.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveProductRepository {
+
+    private static final String PRODUCT_COLUMNS = "SELECT id, name, description, price, quantity, category_id, version FROM products";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    public Mono<ProductDAO> findById(Long id) {
+        return databaseClient.sql(PRODUCT_COLUMNS + " WHERE id = :id")
+                .bind("id", id)
+                .map(this::toProductDAO)
+                .one();
+    }
+
+    /**
+     * @param afterId id after which the page starts, or null for the first page.
+     * @return at most limit products ordered by id.
+     */
+    public Flux<ProductDAO> findPage(Long afterId, int limit) {
+        return databaseClient.sql(PRODUCT_COLUMNS + " WHERE id > :afterId ORDER BY id LIMIT :limit")
+                .bind("afterId", afterId == null ? 0L : afterId)
+                .bind("limit", limit)
+                .map(this::toProductDAO)
+                .all();
+    }
+
+    public Flux<Map.Entry<Long, Double>> findPricesByIdIn(Collection<Long> ids) {
+        return databaseClient.sql("SELECT id, price FROM products WHERE id IN (:ids)")
+                .bind("ids", ids)
+                .map(row -> (Map.Entry<Long, Double>) new AbstractMap.SimpleImmutableEntry<>(
+                        row.get("id", Long.class), row.get("price", Double.class)))
+                .all();
+    }
+
+    private ProductDAO toProductDAO(Row row) {
+        return new ProductDAO(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                row.get("description", String.class),
+                row.get("price", Double.class),
+                row.get("quantity", Integer.class),
+                row.get("category_id", Long.class),
+                row.get("version", Long.class));
+    }
+}
@@ -2,9 +2,14 @@ package com.productsService.business.repository.model;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
-import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
@@ -19,15 +24,38 @@ import java.util.List;
 @NoArgsConstructor
 @Entity
 @Table(name = "category")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CategoryDAO.CACHE_REGION)
 public class CategoryDAO {
+
+    public static final String CACHE_REGION = "category";
+    public static final String QUERY_CACHE_REGION = "category-queries";
+
+    /**
+     * Ids are allocated in blocks of 50 from the id_generator table, so inserts can be sent as JDBC batches,
+     * which IDENTITY columns do not allow.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "category_id")
+    @GenericGenerator(name = "category_id", strategy = "org.hibernate.id.enhanced.TableGenerator", parameters = {
+            @Parameter(name = "table_name", value = "id_generator"),
+            @Parameter(name = "segment_column_name", value = "sequence_name"),
+            @Parameter(name = "value_column_name", value = "next_val"),
+            @Parameter(name = "segment_value", value = "category"),
+            @Parameter(name = "increment_size", value = "50"),
+            @Parameter(name = "optimizer", value = "pooled-lo")})
     private Long id;
 
     @Column(name = "name", nullable = false, length = 125, unique = true)
     private String name;
 
-    @OneToMany(mappedBy = "categoryId", cascade = CascadeType.REMOVE)
+    /**
+     * Not cached: the products refer to their category by a plain column, so Hibernate would never
+     * invalidate a cached collection when a product is added, moved or deleted.
+     * Left out of equals, hashCode and toString, which would otherwise load the whole collection.
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @OneToMany(mappedBy = "categoryId")
     private List<ProductDAO> products;
 
     public CategoryDAO(Long id, String name) {
@@ -0,0 +1,22 @@
+package com.productsService.business.repository.model;
+
+/**
+ * Projection of a category with aggregates over its products, read with a single GROUP BY.
+ */
+public interface CategorySummaryView {
+
+    Long getId();
+
+    String getName();
+
+    Long getProductCount();
+
+    /**
+     * @return the summed quantity, null for a category without products.
+     */
+    Long getTotalQuantity();
+
+    Double getMinPrice();
+
+    Double getMaxPrice();
+}
@@ -2,12 +2,15 @@ package com.productsService.business.repository.model;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
 @Data
 @AllArgsConstructor
@@ -15,8 +18,19 @@ import javax.persistence.Table;
 @Entity
 @Table(name = "products")
 public class ProductDAO {
+    /**
+     * Ids are allocated in blocks of 50 from the id_generator table, so inserts can be sent as JDBC batches,
+     * which IDENTITY columns do not allow.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "products_id")
+    @GenericGenerator(name = "products_id", strategy = "org.hibernate.id.enhanced.TableGenerator", parameters = {
+            @Parameter(name = "table_name", value = "id_generator"),
+            @Parameter(name = "segment_column_name", value = "sequence_name"),
+            @Parameter(name = "value_column_name", value = "next_val"),
+            @Parameter(name = "segment_value", value = "products"),
+            @Parameter(name = "increment_size", value = "50"),
+            @Parameter(name = "optimizer", value = "pooled-lo")})
     private Long id;
 
     @Column(name = "name", nullable = false, length = 125)
@@ -34,4 +48,19 @@ public class ProductDAO {
     @Column(name = "category_id", nullable = false)
     private Long categoryId;
 
+    /**
+     * Incremented on every update, so an edit based on a stale read fails instead of overwriting a concurrent change.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    public ProductDAO(Long id, String name, String description, Double price, Integer quantity, Long categoryId) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.quantity = quantity;
+        this.categoryId = categoryId;
+    }
 }
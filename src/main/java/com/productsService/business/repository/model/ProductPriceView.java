@@ -0,0 +1,11 @@
+package com.productsService.business.repository.model;
+
+/**
+ * Projection of a product row holding only the columns needed for price lookups.
+ */
+public interface ProductPriceView {
+
+    Long getId();
+
+    Double getPrice();
+}
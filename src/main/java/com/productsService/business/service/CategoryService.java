@@ -1,20 +1,39 @@
 package com.productsService.business.service;
 
+import com.productsService.model.BatchItem;
+import com.productsService.model.BatchSaveResult;
 import com.productsService.model.Category;
+import com.productsService.model.CategoryDeletionJob;
+import com.productsService.model.CategoryPatch;
+import com.productsService.model.CategorySummary;
+import com.productsService.model.CursorPage;
 
-import javax.transaction.Transactional;
 import java.util.List;
 import java.util.Optional;
 
 public interface CategoryService {
     List<Category> getAllCategories();
+
+    CursorPage<Category> getCategoriesPage(Long afterId, int limit);
+
+    List<CategorySummary> getCategorySummaries();
+
     Optional<Category> findCategoryById(Long id);
     Category saveCategory(Category category);
 
+    BatchSaveResult saveCategoryBatch(List<BatchItem<Category>> categories);
+
     Category editCategory(Long id, Category category);
 
-    @Transactional
-    void deleteCategoryById(Long id);
+    boolean patchCategory(Long id, CategoryPatch patch);
+
+    CategoryDeletionJob deleteCategoryById(Long id);
+
+    CategoryDeletionJob startCategoryDeletion(Long id);
+
+    Optional<CategoryDeletionJob> findCategoryDeletionJob(String jobId);
+
+    Optional<CategoryDeletionJob> findRunningCategoryDeletionJob(Long categoryId);
 
     boolean isCategoryNameExisting(String name);
 
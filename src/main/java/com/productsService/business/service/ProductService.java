@@ -1,24 +1,53 @@
 package com.productsService.business.service;
 
 
+import com.productsService.model.BatchItem;
+import com.productsService.model.BatchSaveResult;
+import com.productsService.model.CursorPage;
+import com.productsService.model.KeysetPage;
 import com.productsService.model.Product;
+import com.productsService.model.ProductCursor;
+import com.productsService.model.ProductFilter;
+import com.productsService.model.ProductPatch;
+import com.productsService.model.ProductPriceMap;
+import com.productsService.model.ProductSearchMode;
+import com.productsService.model.SearchPage;
+import com.productsService.model.StockReservation;
 
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ProductService {
     List<Product> getAllProducts();
 
+    CursorPage<Product> getProductsPage(Long afterId, int limit);
+
+    KeysetPage<Product> filterProducts(ProductFilter filter, ProductCursor after, int limit);
+
+    void exportProducts(Consumer<Product> productConsumer);
+
     Optional<Product> findProductById(Long id);
 
+    SearchPage<Product> searchProducts(String query, ProductSearchMode mode, int page, int limit);
+
     Product saveProduct(Product product);
 
+    BatchSaveResult saveProductBatch(List<BatchItem<Product>> products);
+
     Product editProduct(Long id, Product updatedProduct);
 
+    boolean patchProduct(Long id, ProductPatch patch);
+
     void deleteProductById(Long id);
 
+    boolean reserveStock(Long id, int quantity);
+
+    void reserveCart(List<StockReservation> reservations);
+
+    boolean releaseStock(Long id, int quantity);
+
     boolean isProductPresent(Long id);
 
-    Map<Long, Double> getProductInfo(List<Long> productIds);
+    ProductPriceMap getProductInfo(List<Long> productIds);
 }
@@ -0,0 +1,18 @@
+package com.productsService.business.service;
+
+import com.productsService.model.Product;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ReactiveProductService {
+    Mono<Product> findProductById(Long id);
+
+    Flux<Product> getProductsPage(Long afterId, int limit);
+
+    Flux<Product> streamProducts();
+
+    Mono<Map<Long, Double>> getProductInfo(List<Long> productIds);
+}
@@ -1,34 +1,80 @@
 package com.productsService.business.service.impl;
 
+import com.productsService.business.cache.CatalogVersions;
+import com.productsService.business.cache.CategoryIdRegistry;
+import com.productsService.business.cache.ProductCache;
+import com.productsService.business.cache.ProductSnapshot;
+import com.productsService.business.events.CatalogChangedEvent;
 import com.productsService.business.mappers.CategoryMapper;
 import com.productsService.business.repository.CategoryRepository;
 import com.productsService.business.repository.ProductRepository;
 import com.productsService.business.repository.model.CategoryDAO;
-import com.productsService.business.repository.model.ProductDAO;
 import com.productsService.business.service.CategoryService;
+import com.productsService.model.BatchItem;
+import com.productsService.model.BatchSaveResult;
+import com.productsService.model.CatalogEntity;
 import com.productsService.model.Category;
+import com.productsService.model.CategoryDeletionJob;
+import com.productsService.model.CategoryPatch;
+import com.productsService.model.CategorySummary;
+import com.productsService.model.CursorPage;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import javax.transaction.Transactional;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class CategoryServiceImpl implements CategoryService {
 
+    static final int DELETE_CHUNK_SIZE = 1000;
+    static final int MAX_CATEGORY_DELETE_ATTEMPTS = 3;
+    private static final int MAX_RETAINED_DELETION_JOBS = 100;
+
+    private final Map<String, CategoryDeletionJob> deletionJobs = new ConcurrentHashMap<>();
+    private final Map<Long, CategoryDeletionJob> runningDeletionJobs = new ConcurrentHashMap<>();
+
     @Autowired
     private CategoryRepository categoryRepository;
     @Autowired
     private CategoryMapper categoryMapper;
     @Autowired
     private ProductRepository productRepository;
+    @Autowired
+    private ProductCache productCache;
+    @Autowired
+    private ProductSnapshot productSnapshot;
+    @Autowired
+    private CatalogVersions catalogVersions;
+    @Autowired
+    private CategoryIdRegistry categoryIdRegistry;
+    @Autowired
+    private TaskExecutor taskExecutor;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private Validator validator;
 
     @Override
+    @Transactional(readOnly = true)
     public List<Category> getAllCategories() {
         List<Category> list = categoryRepository.findAll()
                 .stream()
@@ -38,7 +84,40 @@ public class CategoryServiceImpl implements CategoryService {
         return list;
     }
 
+    /**
+     * Reads one page of categories ordered by id, starting after the given id.
+     * One extra row is read to tell whether another page follows.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Category> getCategoriesPage(Long afterId, int limit) {
+        List<CategoryDAO> page = categoryRepository.findByIdGreaterThanOrderByIdAsc(
+                afterId == null ? 0L : afterId, PageRequest.of(0, limit + 1));
+        boolean hasNextPage = page.size() > limit;
+        List<Category> items = page.stream()
+                .limit(limit)
+                .map(categoryMapper::daoToCategory)
+                .collect(Collectors.toList());
+        Long nextCursor = hasNextPage ? items.get(items.size() - 1).getId() : null;
+        log.info("Size of the Category page after id {}: {}", afterId, items.size());
+        return new CursorPage<>(items, nextCursor);
+    }
+
     @Override
+    @Transactional(readOnly = true)
+    public List<CategorySummary> getCategorySummaries() {
+        List<CategorySummary> list = categoryRepository.findSummaries()
+                .stream()
+                .map(view -> new CategorySummary(view.getId(), view.getName(), view.getProductCount(),
+                        view.getTotalQuantity() == null ? 0 : view.getTotalQuantity(),
+                        view.getMinPrice(), view.getMaxPrice()))
+                .collect(Collectors.toList());
+        log.info("Size of the Category summary list: {}", list.size());
+        return list;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Optional<Category> findCategoryById(Long id) {
         Optional<CategoryDAO> categoryDAO = categoryRepository.findById(id);
         if (!categoryDAO.isPresent()) {
@@ -51,8 +130,58 @@ public class CategoryServiceImpl implements CategoryService {
 
     @Override
     public Category saveCategory(Category category) {
-        log.info("Saving Category entry: {}", category);
-        return categoryMapper.daoToCategory(categoryRepository.save(categoryMapper.categoryToDAO(category)));
+        log.debug("Saving Category entry: {}", category);
+        Category savedCategory = categoryMapper.daoToCategory(categoryRepository.save(categoryMapper.categoryToDAO(category)));
+        categoryIdRegistry.add(savedCategory.getId());
+        catalogVersions.categoriesChanged();
+        eventPublisher.publishEvent(CatalogChangedEvent.created(CatalogEntity.CATEGORY, savedCategory.getId(),
+                categoryFields(savedCategory.getName())));
+        return savedCategory;
+    }
+
+    /**
+     * Validates every category of the chunk and saves the valid ones in one transaction,
+     * which Hibernate sends to the database as JDBC batches.
+     * Names already registered or repeated within the chunk are rejected.
+     */
+    @Override
+    @Transactional
+    public BatchSaveResult saveCategoryBatch(List<BatchItem<Category>> categories) {
+        BatchSaveResult result = new BatchSaveResult(categories.size());
+        Set<String> names = categories.stream()
+                .map(item -> item.getValue().getName())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<String> takenNames = names.isEmpty()
+                ? new HashSet<>()
+                : new HashSet<>(categoryRepository.findExistingNames(names));
+        List<CategoryDAO> validCategories = new ArrayList<>();
+        for (BatchItem<Category> item : categories) {
+            Category category = item.getValue();
+            List<String> errors = validator.validate(category).stream()
+                    .map(ConstraintViolation::getMessage)
+                    .collect(Collectors.toList());
+            if (errors.isEmpty() && !takenNames.add(category.getName())) {
+                errors.add("Sorry, the category name " + category.getName() + " is already registered.");
+            }
+            if (errors.isEmpty()) {
+                validCategories.add(categoryMapper.categoryToDAO(category));
+            } else {
+                result.addError(item.getIndex(), errors);
+            }
+        }
+        categoryRepository.saveAll(validCategories);
+        if (!validCategories.isEmpty()) {
+            categoryIdRegistry.addAll(validCategories.stream().map(CategoryDAO::getId).collect(Collectors.toList()));
+            catalogVersions.categoriesChanged();
+            for (CategoryDAO savedCategory : validCategories) {
+                eventPublisher.publishEvent(CatalogChangedEvent.created(CatalogEntity.CATEGORY, savedCategory.getId(),
+                        categoryFields(savedCategory.getName())));
+            }
+        }
+        result.setSaved(validCategories.size());
+        log.info("Saved {} of {} Category entries of the batch", validCategories.size(), categories.size());
+        return result;
     }
 
     /**
@@ -67,9 +196,16 @@ public class CategoryServiceImpl implements CategoryService {
         Optional<CategoryDAO> optionalCategoryDAO = categoryRepository.findById(id);
         if (optionalCategoryDAO.isPresent()) {
             CategoryDAO existingCategoryDAO = optionalCategoryDAO.get();
+            Map<String, Object> previousFields = categoryFields(existingCategoryDAO.getName());
             BeanUtils.copyProperties(updatedCategory, existingCategoryDAO, "id");
 
             Category updatedCategoryObject = categoryMapper.daoToCategory(categoryRepository.save(existingCategoryDAO));
+            catalogVersions.categoriesChanged();
+            Map<String, Object> changedFields = CatalogChangedEvent.changedFields(previousFields,
+                    categoryFields(existingCategoryDAO.getName()));
+            if (!changedFields.isEmpty()) {
+                eventPublisher.publishEvent(CatalogChangedEvent.updated(CatalogEntity.CATEGORY, id, changedFields));
+            }
             log.info("Category entry with ID: {} updated", id);
             return updatedCategoryObject;
         } else
@@ -77,31 +213,196 @@ public class CategoryServiceImpl implements CategoryService {
         return null;
     }
 
-    @Transactional
+    /**
+     * Updates only the fields set in the patch with one UPDATE statement, without reading the category first.
+     *
+     * @return true if the category was updated, false if it does not exist.
+     */
     @Override
-    public void deleteCategoryById(Long id) {
-        Optional<CategoryDAO> optionalCategoryDAO = categoryRepository.findById(id);
-        CategoryDAO category = optionalCategoryDAO.get();
-        List<ProductDAO> products = category.getProducts();
-        if(products !=null){
-            log.info("Deleting products associated with Category ID: {}", products);
-            productRepository.deleteAll(products);
+    public boolean patchCategory(Long id, CategoryPatch patch) {
+        boolean patched = categoryRepository.updateName(id, patch.getName()) == 1;
+        if (patched) {
+            catalogVersions.categoriesChanged();
+            eventPublisher.publishEvent(CatalogChangedEvent.updated(CatalogEntity.CATEGORY, id,
+                    categoryFields(patch.getName())));
+            log.info("Category entry with ID: {} patched", id);
+        } else
+            log.warn("Failed to patch category. Category entry with ID: {} not found", id);
+        return patched;
+    }
+
+    /**
+     * Deletes the products of the category in chunks of {@value #DELETE_CHUNK_SIZE},
+     * each in its own transaction, and then the category itself.
+     * No products can be added to the category meanwhile, see {@link #isCategoryPresent(Long)}.
+     * Products added by requests that checked the category just before are deleted on one of
+     * {@value #MAX_CATEGORY_DELETE_ATTEMPTS} attempts to delete the category.
+     * <p>
+     * Runs as a deletion job on the calling thread, so it never races a job deleting the same category:
+     * if one is already running, it is returned instead.
+     *
+     * @return the completed job, or the job already deleting the category.
+     */
+    @Override
+    public CategoryDeletionJob deleteCategoryById(Long id) {
+        CategoryDeletionJob job = new CategoryDeletionJob(id);
+        CategoryDeletionJob runningJob = registerDeletionJob(job);
+        if (runningJob != null) {
+            return runningJob;
+        }
+        try {
+            long deletedProducts = deleteCategoryWithProducts(id, job);
+            job.complete();
+            log.info("Category with id: {} and its {} products deleted successfully", id, deletedProducts);
+            return job;
+        } catch (RuntimeException e) {
+            job.fail(e.getMessage());
+            throw e;
+        } finally {
+            deletionJobFinished(job);
+        }
+    }
+
+    /**
+     * Runs {@link #deleteCategoryById(Long)} in the background.
+     * Returns the already running job if the category is being deleted.
+     */
+    @Override
+    public CategoryDeletionJob startCategoryDeletion(Long id) {
+        CategoryDeletionJob job = new CategoryDeletionJob(id);
+        CategoryDeletionJob runningJob = registerDeletionJob(job);
+        if (runningJob != null) {
+            return runningJob;
+        }
+        try {
+            taskExecutor.execute(() -> {
+                try {
+                    long deletedProducts = deleteCategoryWithProducts(id, job);
+                    job.complete();
+                    log.info("Deletion job {}: Category with id: {} and its {} products deleted", job.getId(), id, deletedProducts);
+                } catch (RuntimeException e) {
+                    job.fail(e.getMessage());
+                    log.error("Deletion job {} for Category with id: {} failed", job.getId(), id, e);
+                } finally {
+                    deletionJobFinished(job);
+                }
+            });
+        } catch (RuntimeException e) {
+            job.fail(e.getMessage());
+            deletionJobFinished(job);
+            throw e;
+        }
+        log.info("Started deletion job {} for Category with id: {}", job.getId(), id);
+        return job;
+    }
+
+    @Override
+    public Optional<CategoryDeletionJob> findCategoryDeletionJob(String jobId) {
+        return Optional.ofNullable(deletionJobs.get(jobId));
+    }
+
+    @Override
+    public Optional<CategoryDeletionJob> findRunningCategoryDeletionJob(Long categoryId) {
+        return Optional.ofNullable(runningDeletionJobs.get(categoryId));
+    }
+
+    /**
+     * Registers the job as the one deleting its category and marks the category as being deleted,
+     * unless another job is deleting it already.
+     *
+     * @return the job already deleting the category, or null if the given job was registered.
+     */
+    private CategoryDeletionJob registerDeletionJob(CategoryDeletionJob job) {
+        Long id = job.getCategoryId();
+        CategoryDeletionJob runningJob = runningDeletionJobs.putIfAbsent(id, job);
+        if (runningJob != null) {
+            log.info("Deletion of Category with id: {} is already running as job {}", id, runningJob.getId());
+            return runningJob;
+        }
+        if (deletionJobs.size() >= MAX_RETAINED_DELETION_JOBS) {
+            deletionJobs.values().removeIf(retainedJob -> !retainedJob.isRunning());
+        }
+        deletionJobs.put(job.getId(), job);
+        categoryIdRegistry.markDeleting(id);
+        return null;
+    }
+
+    /**
+     * Ends the deletion mark of the category before unregistering the job, so the mark of a job started
+     * right after is never ended by this one.
+     */
+    private void deletionJobFinished(CategoryDeletionJob job) {
+        categoryIdRegistry.deletionFinished(job.getCategoryId());
+        runningDeletionJobs.remove(job.getCategoryId(), job);
+    }
+
+    private long deleteCategoryWithProducts(Long id, CategoryDeletionJob job) {
+        long deletedProducts = 0;
+        productSnapshot.categoryRemoved(id);
+        for (int attempt = 1; ; attempt++) {
+            deletedProducts += deleteProducts(id, job);
+            try {
+                categoryRepository.deleteById(id);
+                break;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt == MAX_CATEGORY_DELETE_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("Products were added to Category with id: {} while it was deleted, deleting them too", id);
+            }
         }
-        categoryRepository.delete(category);
-        log.info("Category with id: {} deleted successfully", id);
+        categoryIdRegistry.remove(id);
+        productSnapshot.categoryRemoved(id);
+        productCache.invalidateAll();
+        catalogVersions.allProductsChanged();
+        catalogVersions.categoriesChanged();
+        eventPublisher.publishEvent(CatalogChangedEvent.deleted(CatalogEntity.CATEGORY, id));
+        return deletedProducts;
+    }
+
+    private long deleteProducts(Long categoryId, CategoryDeletionJob job) {
+        long deletedProducts = 0;
+        int deletedInChunk;
+        do {
+            deletedInChunk = productRepository.deleteChunkByCategoryId(categoryId, DELETE_CHUNK_SIZE);
+            deletedProducts += deletedInChunk;
+            if (job != null) {
+                job.addDeletedProducts(deletedInChunk);
+            }
+        } while (deletedInChunk == DELETE_CHUNK_SIZE);
+        return deletedProducts;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public boolean isCategoryNameExisting(String name) {
         boolean isCategoryNameExisting = categoryRepository.existsByName(name);
         log.info("Category '{}' exists in database: {}", name, isCategoryNameExisting);
         return isCategoryNameExisting;
     }
 
+    /**
+     * Answers from the {@link CategoryIdRegistry} and only reads the category on a miss.
+     * A category being deleted is reported as missing, so no products are added to it.
+     */
     @Override
     public boolean isCategoryPresent(Long id) {
-        boolean isCategoryPresent = categoryRepository.existsById(id);
+        if (categoryIdRegistry.contains(id)) {
+            return true;
+        }
+        if (categoryIdRegistry.isDeleting(id)) {
+            log.info("Category with id: {} is being deleted", id);
+            return false;
+        }
+        boolean isCategoryPresent = categoryRepository.findById(id).isPresent();
+        if (isCategoryPresent) {
+            categoryIdRegistry.add(id);
+        }
         log.info("is category id '{}' present in database: {}", id, isCategoryPresent);
         return isCategoryPresent;
     }
+
+    private static Map<String, Object> categoryFields(String name) {
+        return Collections.singletonMap("name", name);
+    }
 }
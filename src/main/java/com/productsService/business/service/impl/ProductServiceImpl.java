@@ -1,31 +1,99 @@
 package com.productsService.business.service.impl;
 
+import com.productsService.business.cache.CatalogVersions;
+import com.productsService.business.cache.ProductCache;
+import com.productsService.business.cache.ProductSnapshot;
+import com.productsService.business.events.CatalogChangedEvent;
+import com.productsService.business.exceptions.InsufficientStockException;
 import com.productsService.business.mappers.ProductMapper;
+import com.productsService.business.repository.CategoryRepository;
 import com.productsService.business.repository.ProductRepository;
 import com.productsService.business.repository.model.ProductDAO;
+import com.productsService.business.repository.model.ProductPriceView;
 import com.productsService.business.service.ProductService;
+import com.productsService.logging.LogFormat;
+import com.productsService.model.BatchItem;
+import com.productsService.model.BatchSaveResult;
+import com.productsService.model.CatalogEntity;
+import com.productsService.model.CursorPage;
+import com.productsService.model.KeysetPage;
 import com.productsService.model.Product;
+import com.productsService.model.ProductCursor;
+import com.productsService.model.ProductFilter;
+import com.productsService.model.ProductPatch;
+import com.productsService.model.ProductPriceMap;
+import com.productsService.model.ProductSearchMode;
+import com.productsService.model.SearchPage;
+import com.productsService.model.StockReservation;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 public class ProductServiceImpl implements ProductService {
 
+    static final int PRICE_LOOKUP_CHUNK_SIZE = 1000;
+    static final int MAX_SEARCH_WORDS = 10;
+    private static final Pattern NON_WORD_CHARACTERS = Pattern.compile("[^\\p{L}\\p{N}_]+");
+    /**
+     * The default InnoDB full-text stopwords. They are not indexed, so requiring one would match nothing.
+     */
+    private static final Set<String> FULL_TEXT_STOPWORDS = new HashSet<>(Arrays.asList(
+            "a", "about", "an", "are", "as", "at", "be", "by", "com", "de", "en", "for", "from", "how", "i", "in",
+            "is", "it", "la", "of", "on", "or", "that", "the", "this", "to", "was", "what", "when", "where", "who",
+            "will", "with", "und", "www"));
+
     @Autowired
     private ProductRepository productRepository;
     @Autowired
     private ProductMapper productMapper;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductCache productCache;
+    @Autowired
+    private ProductSnapshot productSnapshot;
+    @Autowired
+    private CatalogVersions catalogVersions;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private Validator validator;
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Override
+    @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
         List<Product> list = productRepository.findAll()
                 .stream()
@@ -35,31 +103,219 @@ public class ProductServiceImpl implements ProductService {
         return list;
     }
 
+    /**
+     * Reads one page of products ordered by id, starting after the given id.
+     * One extra row is read to tell whether another page follows.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Product> getProductsPage(Long afterId, int limit) {
+        List<ProductDAO> page = productRepository.findByIdGreaterThanOrderByIdAsc(
+                afterId == null ? 0L : afterId, PageRequest.of(0, limit + 1));
+        boolean hasNextPage = page.size() > limit;
+        List<Product> items = page.stream()
+                .limit(limit)
+                .map(productMapper::daoToProduct)
+                .collect(Collectors.toList());
+        Long nextCursor = hasNextPage ? items.get(items.size() - 1).getId() : null;
+        log.info("Size of the Product page after id {}: {}", afterId, items.size());
+        return new CursorPage<>(items, nextCursor);
+    }
+
+    /**
+     * Reads one page of the products matching the filter, in its sort order.
+     * One extra row is read to tell whether another page follows.
+     */
+    @Override
+    public KeysetPage<Product> filterProducts(ProductFilter filter, ProductCursor after, int limit) {
+        List<ProductDAO> page = productRepository.findFiltered(filter, after, limit + 1);
+        boolean hasNextPage = page.size() > limit;
+        List<Product> items = page.stream()
+                .limit(limit)
+                .map(productMapper::daoToProduct)
+                .collect(Collectors.toList());
+        String nextCursor = hasNextPage ? ProductCursor.of(items.get(items.size() - 1), filter.getSort()).encode() : null;
+        log.info("Size of the filtered Product page for {}: {}", filter, items.size());
+        return new KeysetPage<>(items, nextCursor);
+    }
+
+    /**
+     * Passes every product to the consumer while reading them from a forward-only result stream.
+     * Each entity is detached once it is mapped, so the persistence context does not grow with the catalog.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportProducts(Consumer<Product> productConsumer) {
+        long exported = 0;
+        try (Stream<ProductDAO> products = productRepository.streamAllOrderedById()) {
+            Iterator<ProductDAO> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                ProductDAO productDAO = iterator.next();
+                productConsumer.accept(productMapper.daoToProduct(productDAO));
+                entityManager.detach(productDAO);
+                exported++;
+            }
+        }
+        log.info("Exported {} Product entries", exported);
+    }
+
     @Override
     public Optional<Product> findProductById(Long id) {
+        Product cachedProduct = productCache.getProduct(id);
+        if (cachedProduct != null) {
+            log.info("Product with id {} found in cache.", id);
+            return Optional.of(cachedProduct);
+        }
+        long cacheStamp = productCache.stamp();
         Optional<ProductDAO> productDAO = productRepository.findById(id);
         if (!productDAO.isPresent()) {
             log.info("Product with id {} does not exist.", id);
             return Optional.empty();
         }
         log.info("Product with id {} found.", id);
-        return productDAO.map(productMapper::daoToProduct);
+        Product product = productMapper.daoToProduct(productDAO.get());
+        productCache.putProduct(product, cacheStamp);
+        return Optional.of(product);
+    }
+
+    /**
+     * Reads one page of the products matching the query.
+     * Ranked results cannot be paged by a cursor, so pages are read by offset and a full page is taken
+     * as a sign that another one follows.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public SearchPage<Product> searchProducts(String query, ProductSearchMode mode, int page, int limit) {
+        PageRequest pageRequest = PageRequest.of(page, limit);
+        List<ProductDAO> results;
+        if (mode == ProductSearchMode.PREFIX) {
+            results = productRepository.findByNameStartingWithOrderByNameAscIdAsc(query.trim(), pageRequest);
+        } else {
+            String fullTextQuery = toFullTextQuery(query);
+            results = fullTextQuery.isEmpty()
+                    ? Collections.emptyList()
+                    : productRepository.searchFullText(fullTextQuery, pageRequest);
+        }
+        List<Product> items = results.stream()
+                .map(productMapper::daoToProduct)
+                .collect(Collectors.toList());
+        log.info("Found {} Product entries for {} search '{}', page {}", items.size(), mode, query, page);
+        return new SearchPage<>(items, items.size() == limit ? page + 1 : null);
+    }
+
+    /**
+     * Turns the words of the query into a boolean mode full-text query requiring each of them,
+     * the last one as a prefix, so results narrow down while the user types.
+     * Only letters, digits and underscores, the word characters of the full-text parser, are kept,
+     * so the query cannot carry full-text operators. Stopwords are not indexed and left out,
+     * unless they are the last word, which may be the start of a longer word and is then optional.
+     */
+    static String toFullTextQuery(String query) {
+        List<String> words = Arrays.stream(NON_WORD_CHARACTERS.split(query.toLowerCase(Locale.ROOT)))
+                .filter(word -> !word.isEmpty())
+                .collect(Collectors.toList());
+        StringBuilder fullTextQuery = new StringBuilder();
+        int searchedWords = 0;
+        for (int i = 0; i < words.size() && searchedWords < MAX_SEARCH_WORDS; i++) {
+            String word = words.get(i);
+            boolean stopword = FULL_TEXT_STOPWORDS.contains(word);
+            boolean lastWord = i == words.size() - 1;
+            if (stopword && !lastWord) {
+                continue;
+            }
+            if (searchedWords++ > 0) {
+                fullTextQuery.append(' ');
+            }
+            fullTextQuery.append(stopword ? "" : "+").append(word).append(lastWord ? "*" : "");
+        }
+        return fullTextQuery.toString();
     }
 
     @Override
     public Product saveProduct(Product product) {
-        log.info("Saving Product entry: {}", product);
-        return productMapper.daoToProduct(productRepository.save(productMapper.productToDAO(product)));
+        log.debug("Saving Product entry: {}", product);
+        ProductDAO savedProductDAO = productRepository.save(productMapper.productToDAO(product));
+        Product savedProduct = productMapper.daoToProduct(savedProductDAO);
+        productCache.invalidate(savedProduct.getId());
+        productSnapshot.productsSaved(Collections.singletonList(savedProductDAO));
+        catalogVersions.productChanged(savedProduct.getId());
+        eventPublisher.publishEvent(CatalogChangedEvent.created(CatalogEntity.PRODUCT, savedProduct.getId(),
+                savedProductDAO.getVersion(), productFields(savedProduct.getName(), savedProduct.getDescription(),
+                        savedProduct.getPrice(), savedProduct.getQuantity(), savedProduct.getCategoryId())));
+        return savedProduct;
+    }
+
+    /**
+     * Validates every product of the chunk and saves the valid ones in one transaction,
+     * which Hibernate sends to the database as JDBC batches.
+     * The categories of the whole chunk are checked with a single query.
+     */
+    @Override
+    @Transactional
+    public BatchSaveResult saveProductBatch(List<BatchItem<Product>> products) {
+        BatchSaveResult result = new BatchSaveResult(products.size());
+        Set<Long> categoryIds = products.stream()
+                .map(item -> item.getValue().getCategoryId())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> existingCategoryIds = categoryIds.isEmpty()
+                ? Collections.emptySet()
+                : new HashSet<>(categoryRepository.findExistingIds(categoryIds));
+        List<ProductDAO> validProducts = new ArrayList<>();
+        for (BatchItem<Product> item : products) {
+            Product product = item.getValue();
+            List<String> errors = validator.validate(product).stream()
+                    .map(ConstraintViolation::getMessage)
+                    .collect(Collectors.toList());
+            if (product.getCategoryId() != null && !existingCategoryIds.contains(product.getCategoryId())) {
+                errors.add("Category not found with ID: " + product.getCategoryId());
+            }
+            if (errors.isEmpty()) {
+                validProducts.add(productMapper.productToDAO(product));
+            } else {
+                result.addError(item.getIndex(), errors);
+            }
+        }
+        productRepository.saveAll(validProducts);
+        if (!validProducts.isEmpty()) {
+            productSnapshot.productsSaved(validProducts);
+            catalogVersions.productsChanged(validProducts.stream().map(ProductDAO::getId).collect(Collectors.toList()));
+            for (ProductDAO savedProduct : validProducts) {
+                eventPublisher.publishEvent(CatalogChangedEvent.created(CatalogEntity.PRODUCT, savedProduct.getId(),
+                        savedProduct.getVersion(), productFields(savedProduct)));
+            }
+        }
+        result.setSaved(validProducts.size());
+        log.info("Saved {} of {} Product entries of the batch", validProducts.size(), products.size());
+        return result;
     }
 
+    /**
+     * Not transactional, so the product is saved detached: with the version of the edit set,
+     * an edit of a product changed since that version fails with an optimistic locking failure.
+     * An edit without a version overwrites the product.
+     */
     @Override
     public Product editProduct(Long id, Product updatedProduct) {
         Optional<ProductDAO> optionalProductDAO = productRepository.findById(id);
         if (optionalProductDAO.isPresent()) {
             ProductDAO existingProductDAO = optionalProductDAO.get();
-            BeanUtils.copyProperties(updatedProduct, existingProductDAO, "id");
+            Map<String, Object> previousFields = productFields(existingProductDAO);
+            BeanUtils.copyProperties(updatedProduct, existingProductDAO, "id", "version");
+            if (updatedProduct.getVersion() != null) {
+                existingProductDAO.setVersion(updatedProduct.getVersion());
+            }
 
-            Product updatedProductObject = productMapper.daoToProduct(productRepository.save(existingProductDAO));
+            ProductDAO savedProductDAO = productRepository.save(existingProductDAO);
+            Product updatedProductObject = productMapper.daoToProduct(savedProductDAO);
+            productCache.invalidate(id);
+            productSnapshot.productsSaved(Collections.singletonList(savedProductDAO));
+            catalogVersions.productChanged(id);
+            Map<String, Object> changedFields = CatalogChangedEvent.changedFields(previousFields, productFields(existingProductDAO));
+            if (!changedFields.isEmpty()) {
+                eventPublisher.publishEvent(CatalogChangedEvent.updated(CatalogEntity.PRODUCT, id,
+                        savedProductDAO.getVersion(), changedFields));
+            }
             log.info("Product entry with ID: {} updated", id);
             return updatedProductObject;
         } else
@@ -67,12 +323,103 @@ public class ProductServiceImpl implements ProductService {
         return null;
     }
 
+    /**
+     * Updates only the fields set in the patch with one UPDATE statement, without reading the product first.
+     * The version it gave the product is read in the same transaction, while the row is still locked.
+     *
+     * @return true if the product was updated, false if it does not exist.
+     */
+    @Override
+    @Transactional
+    public boolean patchProduct(Long id, ProductPatch patch) {
+        boolean patched = productRepository.patch(id, patch) == 1;
+        if (patched) {
+            productCache.invalidateAfterCommit(Collections.singleton(id));
+            productSnapshot.productChanged(id);
+            catalogVersions.productChanged(id);
+            Map<String, Object> patchedFields = productFields(patch.getName(), patch.getDescription(), patch.getPrice(),
+                    patch.getQuantity(), patch.getCategoryId());
+            patchedFields.values().removeIf(Objects::isNull);
+            eventPublisher.publishEvent(CatalogChangedEvent.updated(CatalogEntity.PRODUCT, id,
+                    productRepository.findVersionById(id).orElse(null), patchedFields));
+            log.info("Product entry with ID: {} patched", id);
+        } else
+            log.warn("Failed to patch product. Product entry with ID: {} not found", id);
+        return patched;
+    }
+
     @Override
     public void deleteProductById(Long id) {
         productRepository.deleteById(id);
+        productCache.invalidate(id);
+        productSnapshot.productChanged(id);
+        catalogVersions.productChanged(id);
+        eventPublisher.publishEvent(CatalogChangedEvent.deleted(CatalogEntity.PRODUCT, id));
         log.info("Product entry with id: {} is deleted", id);
     }
 
+    /**
+     * Reserves the quantity with a single conditional update, so concurrent reservations
+     * can never take the stock below zero.
+     *
+     * @return true if the stock was reserved, false if the product does not exist or has not enough stock.
+     */
+    @Override
+    public boolean reserveStock(Long id, int quantity) {
+        boolean reserved = productRepository.reserveStock(id, quantity) == 1;
+        if (reserved) {
+            productCache.invalidate(id);
+            catalogVersions.productChanged(id);
+            log.info("Reserved {} of Product with ID: {}", quantity, id);
+        } else
+            log.warn("Failed to reserve {} of Product with ID: {}", quantity, id);
+        return reserved;
+    }
+
+    /**
+     * Reserves all products of the cart in one transaction, either all of them or none.
+     * Quantities of the same product are summed up and the products are reserved in order of their IDs,
+     * so concurrent carts lock the rows in the same order and cannot deadlock each other.
+     *
+     * @throws InsufficientStockException if one of the products does not exist or has not enough stock.
+     */
+    @Override
+    @Transactional
+    public void reserveCart(List<StockReservation> reservations) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (StockReservation reservation : reservations) {
+            quantities.merge(reservation.getProductId(), reservation.getQuantity(), Integer::sum);
+        }
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            if (productRepository.reserveStock(entry.getKey(), entry.getValue()) == 0) {
+                log.warn("Failed to reserve cart, not enough stock of Product with ID: {}", entry.getKey());
+                throw new InsufficientStockException(entry.getKey(), entry.getValue());
+            }
+        }
+        productCache.invalidateAfterCommit(quantities.keySet());
+        catalogVersions.productsChanged(quantities.keySet());
+        log.info("Reserved cart of {} products", quantities.size());
+    }
+
+    /**
+     * @return true if the stock was released, false if the product does not exist.
+     */
+    @Override
+    public boolean releaseStock(Long id, int quantity) {
+        boolean released = productRepository.releaseStock(id, quantity) == 1;
+        if (released) {
+            productCache.invalidate(id);
+            catalogVersions.productChanged(id);
+            log.info("Released {} of Product with ID: {}", quantity, id);
+        } else
+            log.warn("Failed to release stock. Product entry with ID: {} not found", id);
+        return released;
+    }
+
+    /**
+     * Always asks the database, never the product snapshot: the delete and reserve paths act on the answer,
+     * and a snapshot taken before the product was deleted would still contain it.
+     */
     @Override
     public boolean isProductPresent(Long id) {
         boolean isProductPresent = productRepository.existsById(id);
@@ -82,22 +429,70 @@ public class ProductServiceImpl implements ProductService {
 
     /**
      * Gets the price of products based on their IDs from request.
+     * Prices missing from the product cache are taken from the product snapshot,
+     * the remaining ones are read in chunks of {@value #PRICE_LOOKUP_CHUNK_SIZE} IDs per query.
+     * Cached and snapshot prices are collected into a primitive map, so a request served without the database
+     * allocates no boxed entries.
      *
      * @param productIds List of productIds for which to get prices.
      * @return Map containing productIds as keys and their price as value.
      */
     @Override
-    public Map<Long, Double> getProductInfo(List<Long> productIds) {
-        Map<Long, Double> productInfo = new HashMap<>();
+    public ProductPriceMap getProductInfo(List<Long> productIds) {
+        ProductPriceMap productInfo = new ProductPriceMap(productIds.size());
+        Set<Long> uncachedIds = null;
         for (Long productId : productIds) {
-            ProductDAO productDAO = productRepository.findById(productId).orElse(null);
-            if (productDAO != null) {
-                Product product = productMapper.daoToProduct(productDAO);
-                productInfo.put(productId, product.getPrice());
+            if (productId == null || productInfo.contains(productId)) {
+                continue;
+            }
+            OptionalDouble cachedPrice = productCache.getPrice(productId);
+            if (cachedPrice.isPresent()) {
+                productInfo.put(productId.longValue(), cachedPrice.getAsDouble());
+                continue;
             }
+            OptionalDouble snapshotPrice = productSnapshot.findPrice(productId);
+            if (snapshotPrice.isPresent()) {
+                productInfo.put(productId.longValue(), snapshotPrice.getAsDouble());
+            } else {
+                if (uncachedIds == null) {
+                    uncachedIds = new LinkedHashSet<>();
+                }
+                uncachedIds.add(productId);
+            }
+        }
+        if (uncachedIds != null) {
+            loadPrices(new ArrayList<>(uncachedIds), productInfo);
         }
-        log.info("Returning productInfo for these productIds: {}", productInfo.keySet());
+        log.info("Returning productInfo for these productIds: {}", LogFormat.abbreviate(productInfo.keySet()));
         return productInfo;
     }
 
+    private void loadPrices(List<Long> uncachedIds, ProductPriceMap productInfo) {
+        long cacheStamp = productCache.stamp();
+        Map<Long, Double> loadedPrices = new HashMap<>();
+        for (int from = 0; from < uncachedIds.size(); from += PRICE_LOOKUP_CHUNK_SIZE) {
+            List<Long> chunk = uncachedIds.subList(from, Math.min(from + PRICE_LOOKUP_CHUNK_SIZE, uncachedIds.size()));
+            for (ProductPriceView price : productRepository.findPricesByIdIn(chunk)) {
+                loadedPrices.put(price.getId(), price.getPrice());
+            }
+        }
+        productCache.putPrices(loadedPrices, cacheStamp);
+        loadedPrices.forEach((id, price) -> productInfo.put(id.longValue(), price.doubleValue()));
+    }
+
+    private static Map<String, Object> productFields(ProductDAO product) {
+        return productFields(product.getName(), product.getDescription(), product.getPrice(),
+                product.getQuantity(), product.getCategoryId());
+    }
+
+    private static Map<String, Object> productFields(String name, String description, Double price,
+                                                     Integer quantity, Long categoryId) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("name", name);
+        fields.put("description", description);
+        fields.put("price", price);
+        fields.put("quantity", quantity);
+        fields.put("categoryId", categoryId);
+        return fields;
+    }
 }
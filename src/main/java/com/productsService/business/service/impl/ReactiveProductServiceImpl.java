@@ -0,0 +1,114 @@
+package com.productsService.business.service.impl;
+
+import com.productsService.business.cache.ProductCache;
+import com.productsService.business.mappers.ProductMapper;
+import com.productsService.business.repository.ReactiveProductRepository;
+import com.productsService.business.service.ReactiveProductService;
+import com.productsService.model.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Reactive counterpart of the read methods of {@link ProductServiceImpl}, sharing its product cache.
+ * Nothing blocks: database results arrive on the driver's event loop threads.
+ */
+@Slf4j
+@Service
+@Profile("reactive")
+public class ReactiveProductServiceImpl implements ReactiveProductService {
+
+    static final int STREAM_PAGE_SIZE = 1000;
+
+    @Autowired
+    private ReactiveProductRepository reactiveProductRepository;
+    @Autowired
+    private ProductMapper productMapper;
+    @Autowired
+    private ProductCache productCache;
+
+    @Override
+    public Mono<Product> findProductById(Long id) {
+        return Mono.defer(() -> {
+            Product cachedProduct = productCache.getProduct(id);
+            if (cachedProduct != null) {
+                return Mono.just(cachedProduct);
+            }
+            long cacheStamp = productCache.stamp();
+            return reactiveProductRepository.findById(id)
+                    .map(productMapper::daoToProduct)
+                    .doOnNext(product -> productCache.putProduct(product, cacheStamp));
+        });
+    }
+
+    @Override
+    public Flux<Product> getProductsPage(Long afterId, int limit) {
+        return reactiveProductRepository.findPage(afterId, limit).map(productMapper::daoToProduct);
+    }
+
+    /**
+     * Streams all products ordered by id, reading the next page of {@value #STREAM_PAGE_SIZE} products
+     * only once the subscriber has requested past the current one, so at most one page is held in memory.
+     */
+    @Override
+    public Flux<Product> streamProducts() {
+        return streamProductsAfter(null);
+    }
+
+    private Flux<Product> streamProductsAfter(Long afterId) {
+        return reactiveProductRepository.findPage(afterId, STREAM_PAGE_SIZE)
+                .collectList()
+                .flatMapMany(page -> {
+                    Flux<Product> products = Flux.fromIterable(page).map(productMapper::daoToProduct);
+                    if (page.size() < STREAM_PAGE_SIZE) {
+                        return products;
+                    }
+                    Long lastId = page.get(page.size() - 1).getId();
+                    return products.concatWith(Flux.defer(() -> streamProductsAfter(lastId)));
+                });
+    }
+
+    /**
+     * Same lookup as {@link ProductServiceImpl#getProductInfo(List)}: cached prices first,
+     * the rest in chunks of {@value ProductServiceImpl#PRICE_LOOKUP_CHUNK_SIZE} IDs, one query after the other.
+     */
+    @Override
+    public Mono<Map<Long, Double>> getProductInfo(List<Long> productIds) {
+        return Mono.defer(() -> {
+            List<Long> distinctIds = productIds.stream()
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .collect(Collectors.toList());
+            Map<Long, Double> productInfo = new HashMap<>(productCache.getPrices(distinctIds));
+            List<Long> uncachedIds = distinctIds.stream()
+                    .filter(productId -> !productInfo.containsKey(productId))
+                    .collect(Collectors.toList());
+            if (uncachedIds.isEmpty()) {
+                return Mono.just(productInfo);
+            }
+            long cacheStamp = productCache.stamp();
+            List<List<Long>> chunks = new ArrayList<>();
+            for (int from = 0; from < uncachedIds.size(); from += ProductServiceImpl.PRICE_LOOKUP_CHUNK_SIZE) {
+                chunks.add(uncachedIds.subList(from, Math.min(from + ProductServiceImpl.PRICE_LOOKUP_CHUNK_SIZE, uncachedIds.size())));
+            }
+            return Flux.fromIterable(chunks)
+                    .concatMap(reactiveProductRepository::findPricesByIdIn)
+                    .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                    .map(loadedPrices -> {
+                        productCache.putPrices(loadedPrices, cacheStamp);
+                        productInfo.putAll(loadedPrices);
+                        return productInfo;
+                    });
+        });
+    }
+}
@@ -0,0 +1,31 @@
+package com.productsService.config;
+
+import com.productsService.web.ProductPricePairsHttpMessageConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Binary and compact encodings of the catalog endpoints, chosen with the Accept header.
+ * <p>
+ * Spring MVC registers its Smile ({@code application/x-jackson-smile}) and CBOR ({@code application/cbor})
+ * converters after the JSON one, since their Jackson modules are on the classpath, so JSON stays the default.
+ * The price pairs converter goes before the JSON converter, which would otherwise also write its
+ * {@code +json} media type; the price endpoints list JSON first in their {@code produces}, so they still default to it.
+ */
+@Configuration
+public class MessageConverterConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        int jsonConverterIndex = 0;
+        while (jsonConverterIndex < converters.size()
+                && !(converters.get(jsonConverterIndex) instanceof MappingJackson2HttpMessageConverter)) {
+            jsonConverterIndex++;
+        }
+        converters.add(jsonConverterIndex, new ProductPricePairsHttpMessageConverter());
+    }
+}
@@ -0,0 +1,47 @@
+package com.productsService.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Non-blocking R2DBC access to the products database for the reactive read path.
+ * Spring Boot's R2DBC auto-configuration is excluded, as its transaction manager would compete
+ * with the JPA one used by the rest of the application. The connection pool is not exposed as a bean either,
+ * because the JDBC DataSource auto-configuration backs off when a ConnectionFactory bean exists.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveDatabaseConfig implements DisposableBean {
+
+    private ConnectionPool connectionPool;
+
+    @Bean
+    public DatabaseClient reactiveDatabaseClient(@Value("${products.r2dbc.url}") String url,
+                                                 @Value("${products.r2dbc.username}") String username,
+                                                 @Value("${products.r2dbc.password}") String password,
+                                                 @Value("${products.r2dbc.pool.max-size:20}") int maxSize) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .maxSize(maxSize)
+                .build());
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @Override
+    public void destroy() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+}
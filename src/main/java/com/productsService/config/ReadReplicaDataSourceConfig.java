@@ -0,0 +1,77 @@
+package com.productsService.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Routes read-only transactions, like the ones of {@code getAllProducts}, {@code findProductById} or
+ * {@code getProductInfo}, to the MySQL replicas in {@code products.datasource.replicas}, and keeps writes on the
+ * primary configured with {@code spring.datasource.*}. Every database gets its own Hikari pool, configured with
+ * {@code spring.datasource.hikari.*}.
+ * <p>
+ * Enabled with {@code products.datasource.routing.enabled=true}. Reads from a replica may lag behind the primary,
+ * so the product cache can hold a value older than the last write until it expires.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "products.datasource.routing.enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+public class ReadReplicaDataSourceConfig implements DisposableBean {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties primaryProperties, ReplicaDataSourceProperties replicaProperties,
+                                 Environment environment) {
+        if (replicaProperties.getReplicas().isEmpty()) {
+            throw new IllegalStateException("Replica routing is enabled, but no products.datasource.replicas are configured");
+        }
+        HikariDataSource primary = pool("primary", primaryProperties.getUrl(), primaryProperties.getUsername(),
+                primaryProperties.getPassword(), primaryProperties.determineDriverClassName(), environment);
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (ReplicaDataSourceProperties.Replica replica : replicaProperties.getReplicas()) {
+            HikariDataSource replicaPool = pool("replica-" + replicas.size(), replica.getUrl(),
+                    replica.getUsername() != null ? replica.getUsername() : primaryProperties.getUsername(),
+                    replica.getPassword() != null ? replica.getPassword() : primaryProperties.getPassword(),
+                    primaryProperties.determineDriverClassName(), environment);
+            replicaPool.setReadOnly(true);
+            replicas.add(replicaPool);
+        }
+        log.info("Routing read-only transactions to {} replicas, read-your-writes: {}",
+                replicas.size(), replicaProperties.isReadYourWrites());
+        return new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, replicas, replicaProperties.isReadYourWrites()));
+    }
+
+    private HikariDataSource pool(String name, String url, String username, String password, String driverClassName,
+                                  Environment environment) {
+        HikariDataSource pool = new HikariDataSource();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pool.setJdbcUrl(url);
+        pool.setUsername(username);
+        pool.setPassword(password);
+        pool.setDriverClassName(driverClassName);
+        pools.add(pool);
+        return pool;
+    }
+
+    @Override
+    public void destroy() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,41 @@
+package com.productsService.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "products.datasource")
+public class ReplicaDataSourceProperties {
+
+    /**
+     * Replicas the read-only transactions are spread over.
+     */
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * Whether a request reads from the primary once it has opened a read-write transaction.
+     */
+    private boolean readYourWrites = true;
+
+    /**
+     * How long a write may take to reach the replicas. Requests tagged with an ETag changed within it read from the primary.
+     */
+    private Duration maxReplicaLag = Duration.ofSeconds(5);
+
+    @Data
+    public static class Replica {
+        private String url;
+        /**
+         * Defaults to the user of the primary.
+         */
+        private String username;
+        /**
+         * Defaults to the password of the primary.
+         */
+        private String password;
+    }
+}
@@ -0,0 +1,77 @@
+package com.productsService.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections of read-only transactions round-robin to the replicas and everything else to the primary.
+ * The transaction has to be known when the connection is taken, so this data source is meant to be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ * <p>
+ * With read-your-writes, a request that has opened a read-write transaction reads from the primary
+ * for the rest of the request, so it never misses its own writes because of the replication lag.
+ * A request can also be pinned to the primary with {@link #pinRequestToPrimary()}, whatever the read-your-writes setting.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+    static final String PINNED_TO_PRIMARY_ATTRIBUTE = ReplicaRoutingDataSource.class.getName() + ".PINNED_TO_PRIMARY";
+
+    private final List<String> replicaKeys = new ArrayList<>();
+    private final boolean readYourWrites;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<? extends DataSource> replicas, boolean readYourWrites) {
+        this.readYourWrites = readYourWrites;
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        targetDataSources.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica-" + i;
+            replicaKeys.add(key);
+            targetDataSources.put(key, replicas.get(i));
+        }
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (readYourWrites && TransactionSynchronizationManager.isActualTransactionActive()) {
+                pinRequestToPrimary();
+            }
+            return PRIMARY;
+        }
+        if (replicaKeys.isEmpty() || isRequestPinnedToPrimary()) {
+            return PRIMARY;
+        }
+        return replicaKeys.get(Math.floorMod(nextReplica.getAndIncrement(), replicaKeys.size()));
+    }
+
+    /**
+     * Sends all reads of the current request, if there is one, to the primary, for responses that have to be at least
+     * as recent as the versions of the {@link com.productsService.business.cache.CatalogVersions} they are tagged with.
+     */
+    public static void pinRequestToPrimary() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null) {
+            requestAttributes.setAttribute(PINNED_TO_PRIMARY_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    private static boolean isRequestPinnedToPrimary() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        return requestAttributes != null
+                && requestAttributes.getAttribute(PINNED_TO_PRIMARY_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null;
+    }
+}
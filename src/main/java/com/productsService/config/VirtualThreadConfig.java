@@ -0,0 +1,65 @@
+package com.productsService.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs Tomcat request handling, and with it the blocking JPA and JDBC calls of the services,
+ * as well as the background tasks like category deletion jobs, on virtual threads instead of platform thread pools.
+ * A request waiting on MySQL then no longer holds a pool thread, so concurrency is bounded by the
+ * connection pool rather than by {@code server.tomcat.threads.max}.
+ * <p>
+ * Enabled with {@code products.virtual-threads.enabled=true}, which requires Java 21 or later at runtime.
+ * The build targets Java 17, so the virtual thread API is looked up reflectively.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "products.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        ExecutorService executor = newVirtualThreadExecutor("tomcat-handler-");
+        log.info("Tomcat requests are handled on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    /**
+     * Replaces the thread pool Spring Boot would create for the application task executor.
+     */
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public TaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(newVirtualThreadExecutor("task-"));
+    }
+
+    /**
+     * @return an executor starting a new virtual thread, named with the prefix and a counter, for each task.
+     * @throws IllegalStateException if the runtime does not support virtual threads.
+     */
+    static ExecutorService newVirtualThreadExecutor(String namePrefix) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, threadFactory);
+        } catch (ClassNotFoundException | NoSuchMethodException | InvocationTargetException e) {
+            throw new IllegalStateException("Virtual threads require Java 21 or later, running on Java "
+                    + System.getProperty("java.version"), e);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot create virtual thread executor", e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.productsService.logging;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Log arguments that format at most {@value #MAX_ELEMENTS} elements of a collection or map,
+ * followed by the total size. Formatting happens only when the message is actually written.
+ */
+public final class LogFormat {
+
+    public static final int MAX_ELEMENTS = 10;
+
+    private LogFormat() {
+    }
+
+    public static Object abbreviate(Collection<?> collection) {
+        return new Abbreviated(collection);
+    }
+
+    public static Object abbreviate(Map<?, ?> map) {
+        return new Abbreviated(map.entrySet());
+    }
+
+    private static final class Abbreviated {
+        private final Collection<?> elements;
+
+        private Abbreviated(Collection<?> elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        public String toString() {
+            if (elements == null) {
+                return "null";
+            }
+            StringBuilder builder = new StringBuilder("[");
+            Iterator<?> iterator = elements.iterator();
+            for (int i = 0; i < MAX_ELEMENTS && iterator.hasNext(); i++) {
+                if (i > 0) {
+                    builder.append(", ");
+                }
+                builder.append(iterator.next());
+            }
+            if (iterator.hasNext()) {
+                builder.append(", ... (").append(elements.size()).append(" in total)");
+            }
+            return builder.append(']').toString();
+        }
+    }
+}
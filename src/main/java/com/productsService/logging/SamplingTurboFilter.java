@@ -0,0 +1,80 @@
+package com.productsService.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes only one of every {@code rate} messages at INFO level and below of the configured loggers,
+ * so high-volume success messages do not dominate the logging cost. Warnings and errors are never sampled.
+ * As a turbo filter it decides before the logging event is created, so dropped messages are not formatted.
+ * Only messages enabled by the level of their logger are counted.
+ * <pre>
+ * &lt;turboFilter class="com.productsService.logging.SamplingTurboFilter"&gt;
+ *     &lt;loggers&gt;com.productsService.web.controller,com.productsService.business.service.impl&lt;/loggers&gt;
+ *     &lt;rate&gt;10&lt;/rate&gt;
+ * &lt;/turboFilter&gt;
+ * </pre>
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private final List<String> loggerPrefixes = new ArrayList<>();
+    private final ConcurrentMap<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private int rate = 1;
+
+    /**
+     * @param loggers comma separated names of the loggers to sample, including their child loggers.
+     */
+    public void setLoggers(String loggers) {
+        loggerPrefixes.clear();
+        for (String logger : loggers.split(",")) {
+            if (!logger.trim().isEmpty()) {
+                loggerPrefixes.add(logger.trim());
+            }
+        }
+    }
+
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+
+    @Override
+    public void start() {
+        if (rate < 1) {
+            addError("Sampling rate must be greater than 0, was " + rate);
+            return;
+        }
+        super.start();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // isXxxEnabled() checks come without a format and are not counted
+        if (!isStarted() || rate == 1 || format == null || level.isGreaterOrEqual(Level.WARN) || !isSampled(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        // turbo filters run before the level check, messages the logger drops anyway are not counted
+        if (!level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        long count = counters.computeIfAbsent(logger.getName(), name -> new AtomicLong()).getAndIncrement();
+        return count % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private boolean isSampled(String loggerName) {
+        for (String prefix : loggerPrefixes) {
+            if (loggerName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,179 @@
+package com.productsService.metrics;
+
+import com.productsService.model.BatchSaveResult;
+import com.productsService.model.CursorPage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every call of the controllers, the service implementations and the repositories,
+ * so a latency regression can be attributed to the web, service or database layer.
+ * <p>
+ * Each call is recorded in the {@value #CALLS} timer with percentile histograms, tagged with the layer,
+ * class, method and exception. Failed calls are also counted in {@value #ERRORS}, and the number of
+ * elements returned by calls with a collection-like result is recorded in {@value #RESULT_SIZE}.
+ * The payload sizes in bytes are recorded per endpoint by the {@link PayloadSizeFilter}.
+ */
+@Aspect
+@Component
+public class LayerMetricsAspect {
+
+    public static final String CALLS = "products.layer.calls";
+    public static final String ERRORS = "products.layer.errors";
+    public static final String RESULT_SIZE = "products.layer.result.size";
+
+    static final String CONTROLLER = "controller";
+    static final String SERVICE = "service";
+    static final String REPOSITORY = "repository";
+
+    private static final String REPOSITORY_PACKAGE = "com.productsService.business.repository.";
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+    /**
+     * Upper bound of the result size histogram buckets, larger results fall into the last bucket.
+     */
+    private static final double MAX_EXPECTED_RESULT_SIZE = 1_000_000;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Meters by proxied class and method, as the repositories share methods inherited from the Spring Data interfaces.
+     */
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Method, Meters>> meters = new ConcurrentHashMap<>();
+
+    // the reactive classes only assemble a Mono or Flux when called, so timing them would not measure the work
+    @Around("within(com.productsService.web.controller..*) && !within(com.productsService..Reactive*)"
+            + " && execution(public * *(..))")
+    public Object timeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return record(CONTROLLER, joinPoint);
+    }
+
+    @Around("within(com.productsService.business.service.impl..*) && !within(com.productsService..Reactive*)"
+            + " && execution(public * *(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return record(SERVICE, joinPoint);
+    }
+
+    @Around("this(com.productsService.business.repository.ProductRepository)"
+            + " || this(com.productsService.business.repository.CategoryRepository)")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return record(REPOSITORY, joinPoint);
+    }
+
+    private Object record(String layer, ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Meters methodMeters = meters.computeIfAbsent(joinPoint.getThis().getClass(), key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(method, key -> new Meters(layer, componentName(joinPoint), method.getName()));
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            methodMeters.success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            int size = resultSize(result);
+            if (size >= 0) {
+                methodMeters.resultSize.record(size);
+            }
+            return result;
+        } catch (Throwable ex) {
+            methodMeters.timer(ex).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            methodMeters.errors.increment();
+            throw ex;
+        }
+    }
+
+    /**
+     * @return the simple name of the controller or service class, or of the repository interface.
+     */
+    static String componentName(ProceedingJoinPoint joinPoint) {
+        Class<?> targetClass = ClassUtils.getUserClass(joinPoint.getThis());
+        for (Class<?> proxiedInterface : joinPoint.getThis().getClass().getInterfaces()) {
+            if (proxiedInterface.getName().startsWith(REPOSITORY_PACKAGE)) {
+                return proxiedInterface.getSimpleName();
+            }
+        }
+        return targetClass.getSimpleName();
+    }
+
+    /**
+     * @return the number of elements of a collection-like result, or -1 if the result has no size.
+     */
+    static int resultSize(Object result) {
+        if (result instanceof ResponseEntity) {
+            return resultSize(((ResponseEntity<?>) result).getBody());
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Map) {
+            return ((Map<?, ?>) result).size();
+        }
+        if (result instanceof CursorPage) {
+            return ((CursorPage<?>) result).getItems().size();
+        }
+        if (result instanceof BatchSaveResult) {
+            return ((BatchSaveResult) result).getReceived();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        return -1;
+    }
+
+    private final class Meters {
+        private final String layer;
+        private final String className;
+        private final String methodName;
+        private final Timer success;
+        private final Counter errors;
+        private final DistributionSummary resultSize;
+
+        private Meters(String layer, String className, String methodName) {
+            this.layer = layer;
+            this.className = className;
+            this.methodName = methodName;
+            this.success = timer("none");
+            this.errors = Counter.builder(ERRORS)
+                    .description("Calls that threw an exception")
+                    .tags("layer", layer, "class", className, "method", methodName)
+                    .register(meterRegistry);
+            this.resultSize = DistributionSummary.builder(RESULT_SIZE)
+                    .description("Number of elements returned by a call")
+                    .tags("layer", layer, "class", className, "method", methodName)
+                    .publishPercentiles(PERCENTILES)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(1.0)
+                    .maximumExpectedValue(MAX_EXPECTED_RESULT_SIZE)
+                    .register(meterRegistry);
+        }
+
+        private Timer timer(Throwable ex) {
+            return timer(ex.getClass().getSimpleName());
+        }
+
+        private Timer timer(String exception) {
+            return Timer.builder(CALLS)
+                    .description("Duration of calls to controllers, services and repositories")
+                    .tags("layer", layer, "class", className, "method", methodName, "exception", exception)
+                    .publishPercentiles(PERCENTILES)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+    }
+}
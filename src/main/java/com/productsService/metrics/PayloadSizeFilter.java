@@ -0,0 +1,283 @@
+package com.productsService.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the size in bytes of every request and response body in the {@value #REQUEST_SIZE} and
+ * {@value #RESPONSE_SIZE} distribution summaries (p50/p95/p99 and percentile histograms),
+ * tagged with the HTTP method, the URI pattern of the handler and the status.
+ * <p>
+ * The bytes are counted while the body is read and written, so streamed responses without a Content-Length
+ * are measured too. Response sizes are taken before the compression by Tomcat; the bodies already compressed
+ * by the application are counted compressed. Text written through the writer is counted one byte per character.
+ * The responses of asynchronous requests, like the change stream, are recorded once they complete.
+ */
+@Component
+public class PayloadSizeFilter extends OncePerRequestFilter {
+
+    public static final String REQUEST_SIZE = "products.http.request.size";
+    public static final String RESPONSE_SIZE = "products.http.response.size";
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+    /**
+     * Upper bound of the histogram buckets, larger payloads fall into the last bucket.
+     */
+    private static final double MAX_EXPECTED_PAYLOAD_SIZE = 1024.0 * 1024 * 1024;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        CountingRequest countingRequest = new CountingRequest(request);
+        CountingResponse countingResponse = new CountingResponse(response);
+        try {
+            filterChain.doFilter(countingRequest, countingResponse);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        record(request, response, countingRequest, countingResponse);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                record(request, response, countingRequest, countingResponse);
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return true;
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response,
+                        CountingRequest countingRequest, CountingResponse countingResponse) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        String status = Integer.toString(response.getStatus());
+        summary(REQUEST_SIZE, "Size of the request bodies", request.getMethod(), uri, status)
+                .record(countingRequest.bytes.sum());
+        summary(RESPONSE_SIZE, "Size of the response bodies", request.getMethod(), uri, status)
+                .record(countingResponse.bytes.sum());
+    }
+
+    private DistributionSummary summary(String name, String description, String method, String uri, String status) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .baseUnit("bytes")
+                .tags("method", method, "uri", uri, "status", status)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(MAX_EXPECTED_PAYLOAD_SIZE)
+                .register(meterRegistry);
+    }
+
+    private static final class CountingRequest extends HttpServletRequestWrapper {
+        private final LongAdder bytes = new LongAdder();
+        private ServletInputStream inputStream;
+        private BufferedReader reader;
+
+        private CountingRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                inputStream = new CountingInputStream(super.getInputStream(), bytes);
+            }
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            if (reader == null) {
+                String encoding = getCharacterEncoding() == null ? "ISO-8859-1" : getCharacterEncoding();
+                reader = new BufferedReader(new InputStreamReader(getInputStream(), encoding));
+            }
+            return reader;
+        }
+    }
+
+    private static final class CountingResponse extends HttpServletResponseWrapper {
+        private final LongAdder bytes = new LongAdder();
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        private CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new CountingOutputStream(super.getOutputStream(), bytes);
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new CountingWriter(super.getWriter(), bytes));
+            }
+            return writer;
+        }
+    }
+
+    private static final class CountingInputStream extends ServletInputStream {
+        private final ServletInputStream delegate;
+        private final LongAdder bytes;
+
+        private CountingInputStream(ServletInputStream delegate, LongAdder bytes) {
+            this.delegate = delegate;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = delegate.read();
+            if (read >= 0) {
+                bytes.increment();
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = delegate.read(buffer, offset, length);
+            if (read > 0) {
+                bytes.add(read);
+            }
+            return read;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return delegate.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            delegate.setReadListener(readListener);
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+
+    private static final class CountingOutputStream extends ServletOutputStream {
+        private final ServletOutputStream delegate;
+        private final LongAdder bytes;
+
+        private CountingOutputStream(ServletOutputStream delegate, LongAdder bytes) {
+            this.delegate = delegate;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            bytes.increment();
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            delegate.write(buffer, offset, length);
+            bytes.add(length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+
+    private static final class CountingWriter extends Writer {
+        private final Writer delegate;
+        private final LongAdder bytes;
+
+        private CountingWriter(Writer delegate, LongAdder bytes) {
+            this.delegate = delegate;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) throws IOException {
+            delegate.write(buffer, offset, length);
+            bytes.add(length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.productsService.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * One entry of a batch request together with its position in the request body.
+ */
+@Data
+@AllArgsConstructor
+public class BatchItem<T> {
+    private int index;
+    private T value;
+}
@@ -0,0 +1,21 @@
+package com.productsService.model;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@ApiModel(description = "Reasons a single entry of a batch request was not saved")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemError {
+    @ApiModelProperty(notes = "The position of the entry in the request array, starting at 0")
+    private int index;
+
+    @ApiModelProperty(notes = "The reasons the entry was rejected")
+    private List<String> messages;
+}
@@ -0,0 +1,42 @@
+package com.productsService.model;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+@ApiModel(description = "Outcome of a batch save request")
+@Data
+@NoArgsConstructor
+public class BatchSaveResult {
+    @ApiModelProperty(notes = "The number of entries in the request")
+    private int received;
+
+    @ApiModelProperty(notes = "The number of entries saved")
+    private int saved;
+
+    @ApiModelProperty(notes = "The entries that were not saved")
+    private List<BatchItemError> errors = new ArrayList<>();
+
+    public BatchSaveResult(int received) {
+        this.received = received;
+    }
+
+    public void addError(int index, String message) {
+        addError(index, Collections.singletonList(message));
+    }
+
+    public void addError(int index, List<String> messages) {
+        errors.add(new BatchItemError(index, messages));
+    }
+
+    public void add(BatchSaveResult other) {
+        received += other.getReceived();
+        saved += other.getSaved();
+        errors.addAll(other.getErrors());
+    }
+}
@@ -0,0 +1,35 @@
+package com.productsService.model;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@ApiModel(description = "A committed change of a Product or Category")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogChange {
+    @ApiModelProperty(notes = "The position of the change in the stream of this instance, increasing with every change")
+    private long version;
+
+    @ApiModelProperty(notes = "Whether a Product or a Category changed")
+    private CatalogEntity entity;
+
+    @ApiModelProperty(notes = "Whether the entry was created, updated or deleted")
+    private CatalogChangeType type;
+
+    @ApiModelProperty(notes = "The unique id of the changed entry")
+    private Long id;
+
+    @ApiModelProperty(notes = "The version of the Product after the change, increasing with every write to it. "
+            + "A change with a lower entityVersion than one already applied to the Product is outdated. "
+            + "Null for categories and deletions")
+    private Long entityVersion;
+
+    @ApiModelProperty(notes = "The new values of the changed fields, empty for deletions")
+    private Map<String, Object> fields;
+}
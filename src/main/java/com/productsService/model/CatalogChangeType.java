@@ -0,0 +1,7 @@
+package com.productsService.model;
+
+public enum CatalogChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,6 @@
+package com.productsService.model;
+
+public enum CatalogEntity {
+    PRODUCT,
+    CATEGORY
+}
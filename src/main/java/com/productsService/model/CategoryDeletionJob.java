@@ -0,0 +1,73 @@
+package com.productsService.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+@ApiModel(description = "Progress of an asynchronous Category deletion")
+@Getter
+public class CategoryDeletionJob {
+
+    public enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    @ApiModelProperty(notes = "The unique id of the deletion job")
+    private final String id = UUID.randomUUID().toString();
+
+    @ApiModelProperty(notes = "The id of the Category being deleted")
+    private final Long categoryId;
+
+    @ApiModelProperty(notes = "The time the deletion started")
+    private final String startedAt = now();
+
+    @ApiModelProperty(notes = "The time the deletion finished, null while it is running")
+    private volatile String finishedAt;
+
+    @ApiModelProperty(notes = "The state of the deletion")
+    private volatile Status status = Status.RUNNING;
+
+    @ApiModelProperty(notes = "The reason the deletion failed")
+    private volatile String error;
+
+    private final AtomicLong deletedProducts = new AtomicLong();
+
+    public CategoryDeletionJob(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    @ApiModelProperty(notes = "The number of products of the Category deleted so far")
+    public long getDeletedProducts() {
+        return deletedProducts.get();
+    }
+
+    public void addDeletedProducts(long count) {
+        deletedProducts.addAndGet(count);
+    }
+
+    public void complete() {
+        finishedAt = now();
+        status = Status.COMPLETED;
+    }
+
+    public void fail(String reason) {
+        error = reason;
+        finishedAt = now();
+        status = Status.FAILED;
+    }
+
+    @JsonIgnore
+    public boolean isRunning() {
+        return status == Status.RUNNING;
+    }
+
+    private static String now() {
+        return LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+}
@@ -0,0 +1,27 @@
+package com.productsService.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+
+@ApiModel(description = "Fields of a Category to change, fields left out or null stay unchanged")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryPatch {
+    @ApiModelProperty(notes = "The new unique name of Category")
+    @Pattern(regexp = ".*\\S.*", message = "Category name cannot be blank")
+    @Size(max = 125, message = "Category name length must not exceed 125 characters")
+    private String name;
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return name == null;
+    }
+}
@@ -0,0 +1,31 @@
+package com.productsService.model;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@ApiModel(description = "Category with the number, total stock and price range of its products")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategorySummary {
+    @ApiModelProperty(notes = "The unique id of the Category")
+    private Long id;
+
+    @ApiModelProperty(notes = "The unique name of Category")
+    private String name;
+
+    @ApiModelProperty(notes = "The number of products in the Category")
+    private long productCount;
+
+    @ApiModelProperty(notes = "The summed quantity of the products in the Category")
+    private long totalQuantity;
+
+    @ApiModelProperty(notes = "The lowest product price, null if the Category has no products")
+    private Double minPrice;
+
+    @ApiModelProperty(notes = "The highest product price, null if the Category has no products")
+    private Double maxPrice;
+}
@@ -0,0 +1,24 @@
+package com.productsService.model;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@ApiModel(description = "One page of entries ordered by id")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    @ApiModelProperty(notes = "The entries of this page")
+    private List<T> items;
+
+    @ApiModelProperty(notes = "The afterId to request the next page with, null if this is the last page")
+    private Long nextCursor;
+}
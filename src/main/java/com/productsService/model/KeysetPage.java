@@ -0,0 +1,21 @@
+package com.productsService.model;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@ApiModel(description = "One page of entries in the requested sort order")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeysetPage<T> {
+    @ApiModelProperty(notes = "The entries of this page")
+    private List<T> items;
+
+    @ApiModelProperty(notes = "The cursor to request the next page with, null if this is the last page")
+    private String nextCursor;
+}
@@ -1,5 +1,6 @@
 package com.productsService.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
@@ -38,6 +39,19 @@ public class Product {
     private Integer quantity;
 
     @ApiModelProperty(notes = "The categoryId of Product")
-    @NotNull
+    @NotNull(message = "CategoryId of product cannot be null")
     private Long categoryId;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @ApiModelProperty(notes = "The version of Product, an edit sent with an older version is rejected")
+    private Long version;
+
+    public Product(Long id, String name, String description, Double price, Integer quantity, Long categoryId) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.quantity = quantity;
+        this.categoryId = categoryId;
+    }
 }
@@ -0,0 +1,53 @@
+package com.productsService.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Position in a sorted product query: the sort order, the sort value and the id of the last product of a page.
+ * Clients get it as an opaque URL-safe string, which is only accepted for the sort order it was created for.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductCursor {
+    private ProductSort sort;
+    private String sortValue;
+    private Long id;
+
+    public static ProductCursor of(Product product, ProductSort sort) {
+        return new ProductCursor(sort, sort == ProductSort.PRICE ? String.valueOf(product.getPrice()) : product.getName(),
+                product.getId());
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((sort + "|" + sortValue + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the cursor, or empty if it was not created by {@link #encode()} for the given sort order.
+     */
+    public static Optional<ProductCursor> decode(String cursor, ProductSort sort) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sortSeparator = decoded.indexOf('|');
+            int idSeparator = decoded.lastIndexOf('|');
+            if (sortSeparator == idSeparator || !decoded.substring(0, sortSeparator).equals(sort.name())) {
+                return Optional.empty();
+            }
+            String sortValue = decoded.substring(sortSeparator + 1, idSeparator);
+            if (sort == ProductSort.PRICE) {
+                Double.parseDouble(sortValue);
+            }
+            return Optional.of(new ProductCursor(sort, sortValue, Long.valueOf(decoded.substring(idSeparator + 1))));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.productsService.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Conditions of a filtered product query, conditions left null do not filter.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilter {
+    private Long categoryId;
+    private Double minPrice;
+    private Double maxPrice;
+    private boolean inStock;
+    private ProductSort sort = ProductSort.PRICE;
+}
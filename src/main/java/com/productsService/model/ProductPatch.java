@@ -0,0 +1,39 @@
+package com.productsService.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+
+@ApiModel(description = "Fields of a Product to change, fields left out or null stay unchanged")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPatch {
+    @ApiModelProperty(notes = "The new name of Product")
+    @Pattern(regexp = ".*\\S.*", message = "Product name cannot be blank")
+    @Size(max = 125, message = "Product name length must not exceed 125 characters")
+    private String name;
+
+    @ApiModelProperty(notes = "The new description of Product")
+    private String description;
+
+    @ApiModelProperty(notes = "The new price of Product")
+    private Double price;
+
+    @ApiModelProperty(notes = "The new quantity of Product")
+    private Integer quantity;
+
+    @ApiModelProperty(notes = "The new categoryId of Product")
+    private Long categoryId;
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return name == null && description == null && price == null && quantity == null && categoryId == null;
+    }
+}
@@ -0,0 +1,201 @@
+package com.productsService.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Prices by product ID in an open-addressing hash table of primitive {@code long} keys and {@code double} values,
+ * so building and serializing a price lookup result allocates no boxed entries.
+ * <p>
+ * Slots are probed linearly and the table doubles once it is three quarters full. Key 0 marks a free slot,
+ * so a price of product ID 0 is kept outside of the table. Prices cannot be removed.
+ * The {@link Map} view boxes on access and is meant for callers that are not on the hot path, like tests and logging.
+ * Not thread-safe.
+ */
+@JsonSerialize(using = ProductPriceMapSerializer.class)
+public class ProductPriceMap extends AbstractMap<Long, Double> {
+
+    private static final int MINIMUM_CAPACITY = 8;
+
+    private long[] keys;
+    private double[] values;
+    private int size;
+    private boolean hasZeroKey;
+    private double zeroKeyValue;
+
+    public ProductPriceMap() {
+        this(MINIMUM_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize number of prices that fit without growing the table.
+     */
+    public ProductPriceMap(int expectedSize) {
+        int capacity = MINIMUM_CAPACITY;
+        while (capacity * 3L / 4 < expectedSize) {
+            capacity <<= 1;
+        }
+        keys = new long[capacity];
+        values = new double[capacity];
+    }
+
+    public void put(long id, double price) {
+        if (id == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroKeyValue = price;
+            return;
+        }
+        int slot = slot(id);
+        if (keys[slot] == 0) {
+            if (tableSize() + 1 > keys.length * 3 / 4) {
+                grow();
+                slot = slot(id);
+            }
+            keys[slot] = id;
+            size++;
+        }
+        values[slot] = price;
+    }
+
+    public boolean contains(long id) {
+        return id == 0 ? hasZeroKey : keys[slot(id)] != 0;
+    }
+
+    /**
+     * @return the price of the product, or defaultPrice if it is not part of the map.
+     */
+    public double getPrice(long id, double defaultPrice) {
+        if (id == 0) {
+            return hasZeroKey ? zeroKeyValue : defaultPrice;
+        }
+        int slot = slot(id);
+        return keys[slot] != 0 ? values[slot] : defaultPrice;
+    }
+
+    /**
+     * Passes every price to the consumer without boxing.
+     */
+    public void forEachPrice(PriceConsumer consumer) {
+        if (hasZeroKey) {
+            consumer.accept(0, zeroKeyValue);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Long && contains((Long) key);
+    }
+
+    @Override
+    public Double get(Object key) {
+        return containsKey(key) ? getPrice((Long) key, 0) : null;
+    }
+
+    @Override
+    public Double put(Long key, Double value) {
+        Double previous = get(key);
+        put(key.longValue(), value.doubleValue());
+        return previous;
+    }
+
+    @Override
+    public Set<Entry<Long, Double>> entrySet() {
+        return new AbstractSet<Entry<Long, Double>>() {
+            @Override
+            public Iterator<Entry<Long, Double>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private int tableSize() {
+        return hasZeroKey ? size - 1 : size;
+    }
+
+    /**
+     * @return the slot holding the ID, or the free slot where it would be inserted.
+     */
+    private int slot(long id) {
+        int mask = keys.length - 1;
+        int slot = (int) (id * 0x9E3779B97F4A7C15L >>> 32) & mask;
+        while (keys[slot] != 0 && keys[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        double[] oldValues = values;
+        keys = new long[oldKeys.length << 1];
+        values = new double[oldValues.length << 1];
+        for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+            if (oldKeys[oldSlot] != 0) {
+                int slot = slot(oldKeys[oldSlot]);
+                keys[slot] = oldKeys[oldSlot];
+                values[slot] = oldValues[oldSlot];
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface PriceConsumer {
+        void accept(long id, double price);
+    }
+
+    private final class EntryIterator implements Iterator<Entry<Long, Double>> {
+        private boolean zeroKeyPending = hasZeroKey;
+        private int nextSlot = nextUsedSlot(0);
+
+        @Override
+        public boolean hasNext() {
+            return zeroKeyPending || nextSlot < keys.length;
+        }
+
+        @Override
+        public Entry<Long, Double> next() {
+            if (zeroKeyPending) {
+                zeroKeyPending = false;
+                return new SimpleImmutableEntry<>(0L, zeroKeyValue);
+            }
+            if (nextSlot >= keys.length) {
+                throw new NoSuchElementException();
+            }
+            Entry<Long, Double> entry = new SimpleImmutableEntry<>(keys[nextSlot], values[nextSlot]);
+            nextSlot = nextUsedSlot(nextSlot + 1);
+            return entry;
+        }
+
+        private int nextUsedSlot(int from) {
+            int slot = from;
+            while (slot < keys.length && keys[slot] == 0) {
+                slot++;
+            }
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.productsService.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes a {@link ProductPriceMap} as a JSON object of product IDs to prices, like a {@code Map<Long, Double>},
+ * straight from its primitive arrays.
+ */
+public class ProductPriceMapSerializer extends StdSerializer<ProductPriceMap> {
+
+    public ProductPriceMapSerializer() {
+        super(ProductPriceMap.class);
+    }
+
+    @Override
+    public boolean isEmpty(SerializerProvider provider, ProductPriceMap value) {
+        return value.isEmpty();
+    }
+
+    @Override
+    public void serialize(ProductPriceMap prices, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(prices, prices.size());
+        try {
+            prices.forEachPrice((id, price) -> {
+                try {
+                    generator.writeFieldId(id);
+                    generator.writeNumber(price);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        generator.writeEndObject();
+    }
+}
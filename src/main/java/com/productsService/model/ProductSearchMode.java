@@ -0,0 +1,13 @@
+package com.productsService.model;
+
+public enum ProductSearchMode {
+    /**
+     * Products whose name starts with the query, ordered by name. Meant for typeahead.
+     */
+    PREFIX,
+    /**
+     * Products whose name or description contain every word of the query, the last word as a prefix,
+     * ordered by relevance.
+     */
+    TEXT
+}
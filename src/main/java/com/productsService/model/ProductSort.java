@@ -0,0 +1,6 @@
+package com.productsService.model;
+
+public enum ProductSort {
+    PRICE,
+    NAME
+}
@@ -0,0 +1,21 @@
+package com.productsService.model;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@ApiModel(description = "One page of search results, the best matches first")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchPage<T> {
+    @ApiModelProperty(notes = "The entries of this page")
+    private List<T> items;
+
+    @ApiModelProperty(notes = "The page to request the next results with, null once a page is not full")
+    private Integer nextPage;
+}
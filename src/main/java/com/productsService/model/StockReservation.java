@@ -0,0 +1,25 @@
+package com.productsService.model;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+
+@ApiModel(description = "Quantity of a Product to reserve")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservation {
+    @ApiModelProperty(notes = "The id of the Product")
+    @NotNull(message = "ProductId of reservation cannot be null")
+    private Long productId;
+
+    @ApiModelProperty(notes = "The quantity to reserve")
+    @NotNull(message = "Quantity of reservation cannot be null")
+    @Positive(message = "Quantity of reservation must be greater than 0")
+    private Integer quantity;
+}
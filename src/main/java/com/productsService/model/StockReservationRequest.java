@@ -0,0 +1,21 @@
+package com.productsService.model;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+
+@ApiModel(description = "Products to reserve together, either all or none of them")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationRequest {
+    @ApiModelProperty(notes = "The Products and quantities to reserve")
+    @NotEmpty(message = "Reservation items cannot be empty")
+    private List<@Valid StockReservation> items;
+}
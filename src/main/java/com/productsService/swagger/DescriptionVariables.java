@@ -4,5 +4,6 @@ public class DescriptionVariables {
 
     public static final String PRODUCTS = "Products Controller";
     public static final String CATEGORY = "Category Controller";
+    public static final String CHANGES = "Catalog Changes Controller";
 
 }
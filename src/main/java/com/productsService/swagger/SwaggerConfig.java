@@ -1,15 +1,22 @@
 package com.productsService.swagger;
 
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfoHandlerMapping;
 import springfox.documentation.builders.ApiInfoBuilder;
 import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.service.ApiInfo;
 import springfox.documentation.service.Tag;
 import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
+import springfox.documentation.spring.web.plugins.WebMvcRequestHandlerProvider;
+
+import java.lang.reflect.Field;
+import java.util.List;
 
 @Configuration
 @EnableWebMvc
@@ -26,12 +33,38 @@ public class SwaggerConfig implements WebMvcConfigurer {
         return appendTags(docket);
 
     }
+    /**
+     * Springfox fails on handler mappings matching with path patterns, like the one of the Actuator endpoints,
+     * so they are removed from the mappings it documents.
+     */
+    @Bean
+    public static BeanPostProcessor springfoxHandlerProviderBeanPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof WebMvcRequestHandlerProvider) {
+                    getHandlerMappings(bean).removeIf(mapping -> mapping.getPatternParser() != null);
+                }
+                return bean;
+            }
+
+            @SuppressWarnings("unchecked")
+            private List<RequestMappingInfoHandlerMapping> getHandlerMappings(Object bean) {
+                Field field = ReflectionUtils.findField(bean.getClass(), "handlerMappings");
+                ReflectionUtils.makeAccessible(field);
+                return (List<RequestMappingInfoHandlerMapping>) ReflectionUtils.getField(field, bean);
+            }
+        };
+    }
+
     private Docket appendTags(Docket docket) {
         return docket.tags(
                 new Tag(DescriptionVariables.PRODUCTS,
                         "Used to get, create, edit and delete products"),
         new Tag(DescriptionVariables.CATEGORY,
-                "Used to get, create, edit and delete category")
+                "Used to get, create, edit and delete category"),
+        new Tag(DescriptionVariables.CHANGES,
+                "Used to follow the changes of products and categories")
                 );
     }
     private ApiInfo apiInfo() {
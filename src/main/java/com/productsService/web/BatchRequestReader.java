@@ -0,0 +1,97 @@
+package com.productsService.web;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.productsService.model.BatchItem;
+import com.productsService.model.BatchSaveResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Reads a JSON array request body one element at a time, so large batches never have to be held in memory as a whole.
+ */
+@Slf4j
+@Component
+public class BatchRequestReader {
+
+    public static final int CHUNK_SIZE = 500;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Converts the elements of the array to the given type and passes them to the chunk handler
+     * in chunks of {@value #CHUNK_SIZE}. Elements that cannot be converted are reported as errors,
+     * malformed JSON stops the reading and is reported at the index it was found.
+     * Chunks handed over before that stay saved.
+     *
+     * @param request      the request whose body holds the JSON array.
+     * @param type         the type of the array elements.
+     * @param chunkHandler saves one chunk and reports its outcome.
+     * @return the combined outcome of all chunks.
+     */
+    public <T> BatchSaveResult read(HttpInputMessage request, Class<T> type,
+                                    Function<List<BatchItem<T>>, BatchSaveResult> chunkHandler) throws IOException {
+        BatchSaveResult result = new BatchSaveResult();
+        List<BatchItem<T>> chunk = new ArrayList<>(CHUNK_SIZE);
+        int index = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(request.getBody())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new HttpMessageNotReadableException("Request body must be a JSON array", request);
+            }
+            try {
+                for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken(), index++) {
+                    if (token == null) {
+                        result.addError(index, "Unexpected end of the request body");
+                        break;
+                    }
+                    JsonNode element = parser.readValueAsTree();
+                    try {
+                        chunk.add(new BatchItem<>(index, objectMapper.treeToValue(element, type)));
+                    } catch (JsonProcessingException e) {
+                        result.addError(index, e.getOriginalMessage());
+                    }
+                    if (chunk.size() == CHUNK_SIZE) {
+                        result.add(saveChunk(chunk, chunkHandler));
+                        chunk = new ArrayList<>(CHUNK_SIZE);
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                log.warn("Malformed JSON in batch request at index {}", index);
+                result.addError(index, "Malformed JSON, the remaining entries were not read: " + e.getOriginalMessage());
+            }
+        }
+        if (!chunk.isEmpty()) {
+            result.add(saveChunk(chunk, chunkHandler));
+        }
+        result.setReceived(index);
+        return result;
+    }
+
+    /**
+     * A chunk that cannot be written is rolled back as a whole, so the failure is reported for each of its entries.
+     */
+    private <T> BatchSaveResult saveChunk(List<BatchItem<T>> chunk, Function<List<BatchItem<T>>, BatchSaveResult> chunkHandler) {
+        try {
+            return chunkHandler.apply(chunk);
+        } catch (DataAccessException e) {
+            log.error("Failed to save batch chunk of {} entries starting at index {}", chunk.size(), chunk.get(0).getIndex(), e);
+            BatchSaveResult failed = new BatchSaveResult(chunk.size());
+            String message = "Entry could not be saved: " + e.getMostSpecificCause().getMessage();
+            chunk.forEach(item -> failed.addError(item.getIndex(), message));
+            return failed;
+        }
+    }
+}
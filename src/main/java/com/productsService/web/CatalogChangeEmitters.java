@@ -0,0 +1,189 @@
+package com.productsService.web;
+
+import com.productsService.business.events.CatalogChangeListener;
+import com.productsService.business.events.CatalogChangeLog;
+import com.productsService.model.CatalogChange;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams the changes of the {@link CatalogChangeLog} to Server-Sent Events subscribers.
+ * <p>
+ * Every subscriber has a queue of at most {@code products.changes.subscriber-buffer-size} events, which is sent
+ * on a pool of {@code products.changes.sender-threads} threads of its own, so a slow client never holds up the writes,
+ * and blocked sends never take threads from the application task executor running the category deletion jobs.
+ * A subscriber whose queue overflows is disconnected after its queued events; it reconnects with the
+ * Last-Event-ID of the last event it received and is sent the missed changes from the log.
+ * A heartbeat comment is sent to idle subscribers every {@code products.changes.heartbeat-interval}.
+ */
+@Slf4j
+@Component
+public class CatalogChangeEmitters implements DisposableBean {
+
+    public static final String CHANGE_EVENT = "change";
+    public static final String RESET_EVENT = "reset";
+
+    private final CatalogChangeLog changeLog;
+    private final ExecutorService senderExecutor;
+    private final int bufferSize;
+    private final Duration timeout;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService heartbeatExecutor;
+
+    public CatalogChangeEmitters(CatalogChangeLog changeLog,
+                                 @Value("${products.changes.sender-threads:4}") int senderThreads,
+                                 @Value("${products.changes.subscriber-buffer-size:1000}") int bufferSize,
+                                 @Value("${products.changes.timeout:30m}") Duration timeout,
+                                 @Value("${products.changes.heartbeat-interval:15s}") Duration heartbeatInterval) {
+        this.changeLog = changeLog;
+        AtomicInteger senderCount = new AtomicInteger();
+        this.senderExecutor = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "catalog-change-sender-" + senderCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        this.heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-change-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeatExecutor.scheduleWithFixedDelay(this::sendHeartbeats, heartbeatInterval.toMillis(),
+                heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a stream of the changes after the given version, or of the new changes if it is null.
+     * If the missed changes are no longer retained, the stream starts with a {@value #RESET_EVENT} event
+     * telling the client to reload the catalog.
+     */
+    public SseEmitter subscribe(Long afterVersion) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        subscribers.add(subscriber);
+        boolean replayed = changeLog.subscribe(afterVersion, subscriber);
+        log.info("Change stream subscribed after version: {}, replayed: {}, subscribers: {}",
+                afterVersion, replayed, subscribers.size());
+        return emitter;
+    }
+
+    int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeat();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        heartbeatExecutor.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+            subscriber.emitter.complete();
+        }
+        senderExecutor.shutdownNow();
+    }
+
+    private final class Subscriber implements CatalogChangeListener {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> events = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean overflowed;
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void changed(CatalogChange change) {
+            enqueue(SseEmitter.event()
+                    .id(changeLog.eventId(change.getVersion()))
+                    .name(CHANGE_EVENT)
+                    .data(change, MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void changesLost() {
+            enqueue(SseEmitter.event()
+                    .name(RESET_EVENT)
+                    .data("The missed changes are no longer retained, reload the catalog"));
+        }
+
+        private void heartbeat() {
+            if (events.isEmpty()) {
+                enqueue(SseEmitter.event().comment("heartbeat"));
+            }
+        }
+
+        private void enqueue(SseEmitter.SseEventBuilder event) {
+            if (closed || overflowed) {
+                return;
+            }
+            if (!events.offer(event)) {
+                overflowed = true;
+                log.warn("Change stream buffer of {} events overflowed, disconnecting the subscriber", bufferSize);
+            }
+            if (draining.compareAndSet(false, true)) {
+                senderExecutor.execute(this::drain);
+            }
+        }
+
+        /**
+         * Sends the queued events. Only one drain runs per subscriber at a time, so the events keep their order.
+         */
+        private void drain() {
+            do {
+                SseEmitter.SseEventBuilder event;
+                while (!closed && (event = events.poll()) != null) {
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        log.debug("Change stream subscriber disconnected: {}", e.getMessage());
+                        close();
+                    }
+                }
+                if (overflowed && !closed) {
+                    close();
+                    emitter.complete();
+                }
+                draining.set(false);
+            } while (!closed && !events.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            events.clear();
+            changeLog.unsubscribe(this);
+            subscribers.remove(this);
+        }
+    }
+}
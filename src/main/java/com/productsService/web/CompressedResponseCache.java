@@ -0,0 +1,145 @@
+package com.productsService.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the serialized JSON, and its gzip encoding, of cacheable collection responses, so they are
+ * serialized and compressed once per version instead of once per request.
+ * <p>
+ * Every response is cached under a name with the ETag of the version it was serialized for, and replaced
+ * as soon as it is requested with a different ETag, so at most one version per name is held.
+ * Bodies smaller than {@code server.compression.min-response-size} are not compressed, like those compressed by the server.
+ */
+@Slf4j
+@Component
+public class CompressedResponseCache {
+
+    private static final String GZIP = "gzip";
+
+    private final ObjectMapper objectMapper;
+    private final boolean compressionEnabled;
+    private final long minResponseSize;
+    private final Map<String, CachedBody> bodies = new ConcurrentHashMap<>();
+
+    public CompressedResponseCache(ObjectMapper objectMapper,
+                                   @Value("${server.compression.enabled:false}") boolean compressionEnabled,
+                                   @Value("${server.compression.min-response-size:2KB}") DataSize minResponseSize) {
+        this.objectMapper = objectMapper;
+        this.compressionEnabled = compressionEnabled;
+        this.minResponseSize = minResponseSize.toBytes();
+    }
+
+    /**
+     * @return whether a response accepted by the Accept header can be taken from this cache, which only holds JSON bodies.
+     * Malformed headers are left to the regular content negotiation.
+     */
+    public boolean isCacheable(String acceptHeader) {
+        if (!StringUtils.hasText(acceptHeader)) {
+            return true;
+        }
+        List<MediaType> acceptedTypes;
+        try {
+            acceptedTypes = MediaType.parseMediaTypes(acceptHeader);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        if (acceptedTypes.isEmpty()) {
+            return true;
+        }
+        MediaType.sortBySpecificityAndQuality(acceptedTypes);
+        return acceptedTypes.get(0).isCompatibleWith(MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * Builds a JSON response from the body cached under the name and ETag, serializing the value
+     * from the supplier if there is none. The body is sent gzip encoded if the client accepts it.
+     * The response varies with both the Accept and the Accept-Encoding headers, which shared caches have to key on.
+     *
+     * @param name                 the name of the cached response.
+     * @param etag                 the ETag of the version of the response.
+     * @param acceptEncodingHeader the Accept-Encoding header of the request.
+     * @param value                supplies the value of the response.
+     */
+    public ResponseEntity<byte[]> respond(String name, String etag, String acceptEncodingHeader, Supplier<?> value) {
+        CachedBody body = bodies.get(name);
+        if (body == null || !body.etag.equals(etag)) {
+            body = serialize(etag, value.get());
+            bodies.put(name, body);
+            log.info("Cached {} response: {} bytes, gzip encoded: {} bytes", name, body.json.length,
+                    body.gzip == null ? 0 : body.gzip.length);
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING);
+        if (body.gzip != null && acceptsGzip(acceptEncodingHeader)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(body.gzip);
+        }
+        return response.body(body.json);
+    }
+
+    private CachedBody serialize(String etag, Object value) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            if (!compressionEnabled || json.length < minResponseSize) {
+                return new CachedBody(etag, json, null);
+            }
+            ByteArrayOutputStream gzip = new ByteArrayOutputStream(json.length / 4);
+            try (GZIPOutputStream gzipStream = new GZIPOutputStream(gzip)) {
+                gzipStream.write(json);
+            }
+            return new CachedBody(etag, json, gzip.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static boolean acceptsGzip(String acceptEncodingHeader) {
+        if (acceptEncodingHeader == null) {
+            return false;
+        }
+        for (String coding : acceptEncodingHeader.split(",")) {
+            String[] parameters = coding.split(";");
+            String name = parameters[0].trim();
+            if (name.equalsIgnoreCase(GZIP) || name.equals("*")) {
+                for (int i = 1; i < parameters.length; i++) {
+                    String parameter = parameters[i].trim();
+                    if (parameter.startsWith("q=") && parameter.substring(2).trim().matches("0(\\.0*)?")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class CachedBody {
+        private final String etag;
+        private final byte[] json;
+        private final byte[] gzip;
+
+        private CachedBody(String etag, byte[] json, byte[] gzip) {
+            this.etag = etag;
+            this.json = json;
+            this.gzip = gzip;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.productsService.web;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.productsService.model.ProductPriceMap;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Reads and writes a {@link ProductPriceMap} as a JSON array of {@code [id, price]} pairs, e.g. {@code [[1,4.99],[2,9.5]]}.
+ * Both numbers stay numbers, so neither side has to format or parse product IDs as object keys.
+ * Selected by requesting {@value #MEDIA_TYPE_VALUE} in the Accept header.
+ */
+public class ProductPricePairsHttpMessageConverter extends AbstractHttpMessageConverter<ProductPriceMap> {
+
+    public static final String MEDIA_TYPE_VALUE = "application/vnd.products.price-pairs+json";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public ProductPricePairsHttpMessageConverter() {
+        super(MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ProductPriceMap.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected ProductPriceMap readInternal(Class<? extends ProductPriceMap> clazz, HttpInputMessage inputMessage)
+            throws IOException {
+        ProductPriceMap prices = new ProductPriceMap();
+        try (JsonParser parser = jsonFactory.createParser(inputMessage.getBody())) {
+            expect(parser.nextToken(), JsonToken.START_ARRAY, inputMessage);
+            while (parser.nextToken() == JsonToken.START_ARRAY) {
+                expect(parser.nextToken(), JsonToken.VALUE_NUMBER_INT, inputMessage);
+                long id = parser.getLongValue();
+                JsonToken priceToken = parser.nextToken();
+                if (priceToken != JsonToken.VALUE_NUMBER_FLOAT) {
+                    expect(priceToken, JsonToken.VALUE_NUMBER_INT, inputMessage);
+                }
+                prices.put(id, parser.getDoubleValue());
+                expect(parser.nextToken(), JsonToken.END_ARRAY, inputMessage);
+            }
+            expect(parser.currentToken(), JsonToken.END_ARRAY, inputMessage);
+        }
+        return prices;
+    }
+
+    private static void expect(JsonToken token, JsonToken expected, HttpInputMessage inputMessage) {
+        if (token != expected) {
+            throw new HttpMessageNotReadableException("Expected " + expected + " in price pairs but found " + token,
+                    inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(ProductPriceMap prices, HttpOutputMessage outputMessage) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(outputMessage.getBody())) {
+            generator.writeStartArray(prices, prices.size());
+            prices.forEachPrice((id, price) -> {
+                try {
+                    generator.writeStartArray();
+                    generator.writeNumber(id);
+                    generator.writeNumber(price);
+                    generator.writeEndArray();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+        } catch (UncheckedIOException e) {
+            throw new HttpMessageNotWritableException("Could not write price pairs", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.productsService.web;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Adds {@code Vary: Accept} to every response of the API, since its format (JSON, CBOR, Smile or the price pairs)
+ * is chosen with the Accept header while its ETag is the same for all of them. Without it, a shared cache could
+ * answer a JSON request with a cached CBOR body, or revalidate one format with the 304 of another.
+ * <p>
+ * The header is set before the handler runs, so 304 and error responses carry it too. Spring MVC merges it with
+ * the Vary header of a {@code ResponseEntity}, like those of the {@link CompressedResponseCache}, without repeating Accept.
+ */
+@Component
+public class VaryAcceptFilter extends OncePerRequestFilter {
+
+    static final String API_PATH = "/api/";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        filterChain.doFilter(request, response);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + API_PATH);
+    }
+}
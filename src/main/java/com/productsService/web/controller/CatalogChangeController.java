@@ -0,0 +1,76 @@
+package com.productsService.web.controller;
+
+import com.productsService.business.events.CatalogChangeLog;
+import com.productsService.model.CatalogChange;
+import com.productsService.swagger.DescriptionVariables;
+import com.productsService.web.CatalogChangeEmitters;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import springfox.documentation.annotations.ApiIgnore;
+
+@Api(tags = DescriptionVariables.CHANGES)
+@Slf4j
+@AllArgsConstructor
+@RequestMapping("api/v1/changes")
+@RestController
+public class CatalogChangeController {
+
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    @Autowired
+    private CatalogChangeEmitters catalogChangeEmitters;
+    @Autowired
+    private CatalogChangeLog catalogChangeLog;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ApiOperation(value = "Streams the committed changes of Products and Categories",
+            notes = "Sends a 'change' Server-Sent Event for every created, updated or deleted Product and Category, "
+                    + "with the version of the change as event id. Deleting a Category also deletes its Products "
+                    + "without further events. On reconnect the changes after the Last-Event-ID header, "
+                    + "or after the afterEventId parameter, are sent first. A 'reset' event is sent instead "
+                    + "if they are no longer retained. Only the writes made through the instance serving the stream "
+                    + "are sent, and event ids are only valid on that instance: a 'reset' event is sent "
+                    + "for an event id of another instance or of a previous run",
+            response = CatalogChange.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The stream has been opened"),
+            @ApiResponse(code = 400, message = "The server has Bad Request, cannot process due to an invalid request"),
+            @ApiResponse(code = 500, message = "Server error")})
+    public SseEmitter streamChanges(@ApiParam(value = "id of the event after which the missed changes are sent")
+                                    @RequestParam(required = false) String afterEventId,
+                                    @ApiIgnore @RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId) {
+        Long resumeVersion = null;
+        if (lastEventId != null) {
+            try {
+                resumeVersion = catalogChangeLog.versionOf(lastEventId.trim());
+            } catch (IllegalArgumentException e) {
+                log.warn("Invalid {} header: {}", LAST_EVENT_ID, lastEventId);
+                // No change has a negative version, so the client is told to reload the catalog
+                resumeVersion = -1L;
+            }
+        } else if (afterEventId != null) {
+            try {
+                resumeVersion = catalogChangeLog.versionOf(afterEventId.trim());
+            } catch (IllegalArgumentException e) {
+                log.warn("Invalid afterEventId: {}", afterEventId);
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid afterEventId: " + afterEventId);
+            }
+        }
+        return catalogChangeEmitters.subscribe(resumeVersion);
+    }
+}
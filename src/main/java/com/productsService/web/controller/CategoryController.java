@@ -1,8 +1,16 @@
 package com.productsService.web.controller;
 
+import com.productsService.business.cache.CatalogVersions;
 import com.productsService.business.service.CategoryService;
+import com.productsService.model.BatchSaveResult;
 import com.productsService.model.Category;
+import com.productsService.model.CategoryDeletionJob;
+import com.productsService.model.CategoryPatch;
+import com.productsService.model.CategorySummary;
+import com.productsService.model.CursorPage;
 import com.productsService.swagger.DescriptionVariables;
+import com.productsService.web.BatchRequestReader;
+import com.productsService.web.CompressedResponseCache;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -11,18 +19,27 @@ import io.swagger.annotations.ApiResponses;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.ServletServerHttpRequest;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import springfox.documentation.annotations.ApiIgnore;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.net.URI;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -36,15 +53,47 @@ public class CategoryController {
 
     @Autowired
     private CategoryService categoryService;
+    @Autowired
+    private BatchRequestReader batchRequestReader;
+    @Autowired
+    private CatalogVersions catalogVersions;
+    @Autowired
+    private CompressedResponseCache compressedResponseCache;
 
     @GetMapping("/allCategories")
     @ApiOperation(value = "Finds all Category entries",
-            notes = "Returns all Category entries from the database",
+            notes = "Returns all Category entries from the database, or one page of them ordered by id if afterId or limit is provided",
             response = Category.class)
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "The request has succeeded"),
+            @ApiResponse(code = 400, message = "The server has Bad Request, cannot process due to an invalid request"),
             @ApiResponse(code = 500, message = "Server error")})
-    public ResponseEntity<List<Category>> getAllCategoryEntries() {
+    public ResponseEntity<?> getAllCategoryEntries(@ApiParam(value = "id after which the page starts")
+                                                   @RequestParam(required = false) Long afterId,
+                                                   @ApiParam(value = "maximum number of entries in the page")
+                                                   @RequestParam(required = false) Integer limit,
+                                                   @ApiIgnore WebRequest webRequest) {
+        if (afterId != null || limit != null) {
+            int pageLimit = limit == null ? CursorPage.DEFAULT_LIMIT : limit;
+            if (pageLimit < 1) {
+                log.warn("Invalid page limit: {}", pageLimit);
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Page limit must be greater than 0");
+            }
+            if (webRequest.checkNotModified(catalogVersions.categoryCollectionETag())) {
+                return null;
+            }
+            CursorPage<Category> page = categoryService.getCategoriesPage(afterId, Math.min(pageLimit, CursorPage.MAX_LIMIT));
+            log.info("Page size: {}, next cursor: {}", page.getItems().size(), page.getNextCursor());
+            return ResponseEntity.ok(page);
+        }
+        String etag = catalogVersions.categoryCollectionETag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        if (compressedResponseCache.isCacheable(webRequest.getHeader(HttpHeaders.ACCEPT))) {
+            return compressedResponseCache.respond("allCategories", etag,
+                    webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING), categoryService::getAllCategories);
+        }
         List<Category> list = categoryService.getAllCategories();
         if (list.isEmpty()) {
             log.info("Empty Category list found");
@@ -54,6 +103,22 @@ public class CategoryController {
         return new ResponseEntity<>(list, HttpStatus.OK);
     }
 
+    @GetMapping("/summaries")
+    @ApiOperation(value = "Finds all Category entries with the number, total stock and price range of their products",
+            notes = "Returns a summary of every Category ordered by id",
+            response = CategorySummary.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The request has succeeded"),
+            @ApiResponse(code = 500, message = "Server error")})
+    public ResponseEntity<List<CategorySummary>> getCategorySummaries(@ApiIgnore WebRequest webRequest) {
+        if (webRequest.checkNotModified(catalogVersions.categorySummaryETag())) {
+            return null;
+        }
+        List<CategorySummary> list = categoryService.getCategorySummaries();
+        log.info("Summary list size: {}", list.size());
+        return ResponseEntity.ok(list);
+    }
+
     @GetMapping("/getById/{id}")
     @ApiOperation(value = "Find a Category by ID",
             notes = "Returns a single Category entry based on the provided ID",
@@ -87,7 +152,7 @@ public class CategoryController {
     public ResponseEntity<?> saveCategory(@RequestBody @Valid Category category) {
         String categoryName = category.getName();
         if (categoryService.isCategoryNameExisting(categoryName)) {
-            log.info("The Category name " + categoryName +" is already registered");
+            log.info("The Category name {} is already registered", categoryName);
             return new ResponseEntity<>("Sorry, the category name " + categoryName + " is already registered.", HttpStatus.BAD_REQUEST);
         }
         Category savedCategory = categoryService.saveCategory(category);
@@ -95,6 +160,28 @@ public class CategoryController {
         return new ResponseEntity<>(savedCategory, HttpStatus.CREATED);
     }
 
+    /**
+     * Saves a JSON array of category entries. The array is read one entry at a time and written in JDBC batches,
+     * entries failing validation are reported by their index and do not stop the others from being saved.
+     *
+     * @param request the request whose body holds the JSON array of category entries.
+     * @return A ResponseEntity containing the number of received and saved entries and the errors per entry.
+     */
+    @PostMapping("/saveBatch")
+    @ApiOperation(value = "Saves a batch of Category entries in database",
+            notes = "Provide a JSON array of Category data to save.",
+            response = BatchSaveResult.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The request has succeeded"),
+            @ApiResponse(code = 400, message = "The server has Bad Request, cannot process due to an invalid request"),
+            @ApiResponse(code = 500, message = "Server error")})
+    public ResponseEntity<BatchSaveResult> saveCategoryBatch(HttpServletRequest request) throws IOException {
+        BatchSaveResult result = batchRequestReader.read(new ServletServerHttpRequest(request), Category.class, categoryService::saveCategoryBatch);
+        log.info("Category batch saved: {} of {} entries, {} rejected",
+                result.getSaved(), result.getReceived(), result.getErrors().size());
+        return ResponseEntity.ok(result);
+    }
+
     @PutMapping("/edit/{id}")
     @ApiOperation(value = "Edits Category entry by ID",
             notes = "Provide an id to edit specific category in the database",
@@ -107,12 +194,12 @@ public class CategoryController {
     })
     public ResponseEntity<?> editCategoryById(@PathVariable Long id, @RequestBody @Valid Category updatedCategory) {
         if (!categoryService.isCategoryPresent(id)) {
-            log.warn("Sorry, the category with id " + id + " does not exist.");
+            log.warn("Sorry, the category with id {} does not exist.", id);
             return new ResponseEntity<>("Sorry, the category id " + id + " does not exist.", HttpStatus.NOT_FOUND);
         }
         String categoryName = updatedCategory.getName();
         if (categoryService.isCategoryNameExisting(categoryName)) {
-            log.info("The Category name " + categoryName +" is already registered");
+            log.info("The Category name {} is already registered", categoryName);
             return new ResponseEntity<>("Sorry, the category name " + categoryName + " is already registered.", HttpStatus.BAD_REQUEST);
         }
         Category editedCategory = categoryService.editCategory(id, updatedCategory);
@@ -120,22 +207,91 @@ public class CategoryController {
         return ResponseEntity.ok(editedCategory);
     }
 
+    @PatchMapping("/edit/{id}")
+    @ApiOperation(value = "Partially edits Category entry by ID",
+            notes = "Provide only the fields to change, they are updated with one statement without reading the Category first")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The request has succeeded"),
+            @ApiResponse(code = 400, message = "The server has Bad Request, cannot process due to an invalid request"),
+            @ApiResponse(code = 404, message = "The server has not found anything matching the Request-URI"),
+            @ApiResponse(code = 500, message = "Server error")
+    })
+    public ResponseEntity<String> patchCategoryById(@PathVariable Long id, @RequestBody @Valid CategoryPatch patch) {
+        if (patch.isEmpty()) {
+            log.warn("Empty patch for Category entry with ID: {}", id);
+            return new ResponseEntity<>("No field to change provided", HttpStatus.BAD_REQUEST);
+        }
+        if (categoryService.isCategoryNameExisting(patch.getName())) {
+            log.info("The Category name {} is already registered", patch.getName());
+            return new ResponseEntity<>("Sorry, the category name " + patch.getName() + " is already registered.", HttpStatus.BAD_REQUEST);
+        }
+        if (categoryService.patchCategory(id, patch)) {
+            return ResponseEntity.ok("Category entry with ID " + id + " updated");
+        }
+        log.warn("Sorry, the category with id {} does not exist.", id);
+        return new ResponseEntity<>("Sorry, the category id " + id + " does not exist.", HttpStatus.NOT_FOUND);
+    }
+
     @DeleteMapping("/delete/{id}")
     @ApiOperation(value = "Deletes Category entry by ID",
-            notes = "Provide an id to delete specific Category from the database",
+            notes = "Provide an id to delete specific Category and its Products from the database. "
+                    + "With async=true the deletion runs in the background and its progress can be read from the returned job",
             response = Category.class) // BEFORE WAS String.class
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "The request has succeeded"),
+            @ApiResponse(code = 202, message = "The deletion has been started, or the Category is already being deleted"),
             @ApiResponse(code = 404, message = "The server has not found anything matching the Request-URI"),
             @ApiResponse(code = 500, message = "Server error")
     })
-    public ResponseEntity<String> deleteCategory(@PathVariable Long id) {
+    public ResponseEntity<?> deleteCategory(@PathVariable Long id,
+                                            @ApiParam(value = "run the deletion in the background")
+                                            @RequestParam(defaultValue = "false") boolean async) {
+        Optional<CategoryDeletionJob> runningJob = categoryService.findRunningCategoryDeletionJob(id);
+        if (runningJob.isPresent()) {
+            log.info("Category entry with ID: {} is already being deleted by job {}", id, runningJob.get().getId());
+            return deletionJobAccepted(runningJob.get());
+        }
         if (categoryService.isCategoryPresent(id)) {
-            categoryService.deleteCategoryById(id);
+            if (async) {
+                CategoryDeletionJob job = categoryService.startCategoryDeletion(id);
+                log.info("Category entry with ID: {} is being deleted by job {}", id, job.getId());
+                return deletionJobAccepted(job);
+            }
+            CategoryDeletionJob job = categoryService.deleteCategoryById(id);
+            if (job.isRunning()) {
+                log.info("Category entry with ID: {} is already being deleted by job {}", id, job.getId());
+                return deletionJobAccepted(job);
+            }
             log.info("Category entry with ID: {} deleted", id);
             return ResponseEntity.ok("Category entry with ID " + id + " deleted");
         }
         log.warn("Cannot delete Category entry with ID: {}, category not found", id);
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Category not found with ID: " + id);
     }
+
+    @GetMapping("/deletionJobs/{jobId}")
+    @ApiOperation(value = "Find a Category deletion job by ID",
+            notes = "Returns the progress of an asynchronous Category deletion",
+            response = CategoryDeletionJob.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The request has succeeded"),
+            @ApiResponse(code = 404, message = "The server has not found anything matching the Request-URI"),
+            @ApiResponse(code = 500, message = "Server error")})
+    public ResponseEntity<CategoryDeletionJob> getCategoryDeletionJob(@ApiParam(value = "id of the deletion job", required = true)
+                                                                      @PathVariable("jobId") String jobId) {
+        Optional<CategoryDeletionJob> job = categoryService.findCategoryDeletionJob(jobId);
+        if (job.isPresent()) {
+            log.info("Found Category deletion job {}: {}", jobId, job.get().getStatus());
+            return ResponseEntity.status(HttpStatus.OK).body(job.get());
+        }
+        log.warn("Category deletion job not found with ID: {}", jobId);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).header(
+                "Message", "Category deletion job not found with ID: " + jobId).build();
+    }
+
+    private ResponseEntity<CategoryDeletionJob> deletionJobAccepted(CategoryDeletionJob job) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/api/v1/category/deletionJobs/" + job.getId()))
+                .body(job);
+    }
 }
@@ -1,9 +1,28 @@
 package com.productsService.web.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.productsService.business.cache.CatalogVersions;
 import com.productsService.business.service.CategoryService;
 import com.productsService.business.service.ProductService;
+import com.productsService.logging.LogFormat;
+import com.productsService.model.BatchSaveResult;
+import com.productsService.model.CursorPage;
+import com.productsService.model.KeysetPage;
 import com.productsService.model.Product;
+import com.productsService.model.ProductCursor;
+import com.productsService.model.ProductFilter;
+import com.productsService.model.ProductPatch;
+import com.productsService.model.ProductPriceMap;
+import com.productsService.model.ProductSearchMode;
+import com.productsService.model.ProductSort;
+import com.productsService.model.SearchPage;
+import com.productsService.model.StockReservationRequest;
 import com.productsService.swagger.DescriptionVariables;
+import com.productsService.web.BatchRequestReader;
+import com.productsService.web.ProductPricePairsHttpMessageConverter;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -13,9 +32,12 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.ServletServerHttpRequest;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -23,11 +45,17 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import springfox.documentation.annotations.ApiIgnore;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 @Api(tags = DescriptionVariables.PRODUCTS)
@@ -37,19 +65,48 @@ import java.util.Optional;
 @RestController
 public class ProductController {
 
+    private static final String SMILE_MEDIA_TYPE_VALUE = "application/x-jackson-smile";
+
     @Autowired
     private ProductService productService;
     @Autowired
     private CategoryService categoryService;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private BatchRequestReader batchRequestReader;
+    @Autowired
+    private CatalogVersions catalogVersions;
 
     @GetMapping("/allProducts")
     @ApiOperation(value = "Finds all Products entries",
-            notes = "Returns all Products entries from the database",
+            notes = "Returns all Products entries from the database, or one page of them ordered by id if afterId or limit is provided",
             response = Product.class)
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "The request has succeeded"),
+            @ApiResponse(code = 400, message = "The server has Bad Request, cannot process due to an invalid request"),
             @ApiResponse(code = 500, message = "Server error")})
-    public ResponseEntity<List<Product>> getAllProductsEntries() {
+    public ResponseEntity<?> getAllProductsEntries(@ApiParam(value = "id after which the page starts")
+                                                   @RequestParam(required = false) Long afterId,
+                                                   @ApiParam(value = "maximum number of entries in the page")
+                                                   @RequestParam(required = false) Integer limit,
+                                                   @ApiIgnore WebRequest webRequest) {
+        if (afterId != null || limit != null) {
+            int pageLimit = limit == null ? CursorPage.DEFAULT_LIMIT : limit;
+            if (pageLimit < 1) {
+                log.warn("Invalid page limit: {}", pageLimit);
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Page limit must be greater than 0");
+            }
+            if (webRequest.checkNotModified(catalogVersions.productCollectionETag())) {
+                return null;
+            }
+            CursorPage<Product> page = productService.getProductsPage(afterId, Math.min(pageLimit, CursorPage.MAX_LIMIT));
+            log.info("Page size: {}, next cursor: {}", page.getItems().size(), page.getNextCursor());
+            return ResponseEntity.ok(page);
+        }
+        if (webRequest.checkNotModified(catalogVersions.productCollectionETag())) {
+            return null;
+        }
         List<Product> list = productService.getAllProducts();
         if (list.isEmpty()) {
             log.info("Empty Product list found");
@@ -59,6 +116,86 @@ public class ProductController {
         return new ResponseEntity<>(list, HttpStatus.OK);
     }
 
+    @GetMapping("/filter")
+    @ApiOperation(value = "Finds Product entries by category, price range and stock",
+            notes = "Returns one page of the matching Product entries sorted by price or name. "
+                    + "Further pages are requested with the nextCursor of the previous one",
+            response = KeysetPage.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The request has succeeded"),
+            @ApiResponse(code = 400, message = "The server has Bad Request, cannot process due to an invalid request"),
+            @ApiResponse(code = 500, message = "Server error")})
+    public ResponseEntity<?> filterProducts(@ApiParam(value = "id of the Category of the products")
+                                            @RequestParam(required = false) Long categoryId,
+                                            @ApiParam(value = "lowest price")
+                                            @RequestParam(required = false) Double minPrice,
+                                            @ApiParam(value = "highest price")
+                                            @RequestParam(required = false) Double maxPrice,
+                                            @ApiParam(value = "only products with quantity greater than 0")
+                                            @RequestParam(defaultValue = "false") boolean inStock,
+                                            @ApiParam(value = "PRICE or NAME")
+                                            @RequestParam(defaultValue = "PRICE") ProductSort sort,
+                                            @ApiParam(value = "nextCursor of the previous page")
+                                            @RequestParam(required = false) String cursor,
+                                            @ApiParam(value = "maximum number of entries in the page")
+                                            @RequestParam(required = false) Integer limit) {
+        int pageLimit = limit == null ? CursorPage.DEFAULT_LIMIT : limit;
+        if (pageLimit < 1) {
+            log.warn("Invalid page limit: {}", pageLimit);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Page limit must be greater than 0");
+        }
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            log.warn("Invalid price range: {} - {}", minPrice, maxPrice);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("minPrice must not be greater than maxPrice");
+        }
+        ProductCursor after = null;
+        if (cursor != null) {
+            Optional<ProductCursor> decodedCursor = ProductCursor.decode(cursor, sort);
+            if (!decodedCursor.isPresent()) {
+                log.warn("Invalid cursor: {}", cursor);
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid cursor for sort order " + sort);
+            }
+            after = decodedCursor.get();
+        }
+        ProductFilter filter = new ProductFilter(categoryId, minPrice, maxPrice, inStock, sort);
+        KeysetPage<Product> page = productService.filterProducts(filter, after, Math.min(pageLimit, CursorPage.MAX_LIMIT));
+        log.info("Page size: {}, next cursor: {}", page.getItems().size(), page.getNextCursor());
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * Writes the whole catalog as newline-delimited JSON, one product per line,
+     * straight to the response while the products are read from the database.
+     *
+     * @param response the response the products are written to.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ApiOperation(value = "Exports all Products entries",
+            notes = "Streams all Products entries ordered by id as newline-delimited JSON",
+            response = Product.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The request has succeeded"),
+            @ApiResponse(code = 500, message = "Server error")})
+    public void exportProducts(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        ObjectWriter productWriter = objectMapper.writerFor(Product.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            productService.exportProducts(product -> {
+                try {
+                    productWriter.writeValue(generator, product);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        log.info("Product export finished");
+    }
+
     @GetMapping("/getById/{id}")
     @ApiOperation(value = "Find a Product by ID",
             notes = "Returns a single Product entry based on the provided ID",
@@ -69,7 +206,11 @@ public class ProductController {
             @ApiResponse(code = 500, message = "Server error")})
 
     public ResponseEntity<Product> getProductById(@ApiParam(value = "id of the Product entry", required = true)
-                                                  @PathVariable("id") Long id) {
+                                                  @PathVariable("id") Long id,
+                                                  @ApiIgnore WebRequest webRequest) {
+        if (webRequest.checkNotModified(catalogVersions.productETag(id))) {
+            return null;
+        }
         Optional<Product> productOptional = productService.findProductById(id);
         if (productOptional.isPresent()) {
             Product product = productOptional.get();
@@ -81,6 +222,33 @@ public class ProductController {
                 "Message", "Product not found with ID: " + id).build();
     }
 
+    @GetMapping("/search")
+    @ApiOperation(value = "Searches Product entries by name and description",
+            notes = "PREFIX finds products whose name starts with the query, for typeahead. "
+                    + "TEXT finds products containing every word of the query in name or description, the best matches first",
+            response = SearchPage.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The request has succeeded"),
+            @ApiResponse(code = 400, message = "The server has Bad Request, cannot process due to an invalid request"),
+            @ApiResponse(code = 500, message = "Server error")})
+    public ResponseEntity<?> searchProducts(@ApiParam(value = "text to search for", required = true)
+                                            @RequestParam String query,
+                                            @ApiParam(value = "PREFIX or TEXT")
+                                            @RequestParam(defaultValue = "TEXT") ProductSearchMode mode,
+                                            @ApiParam(value = "page of the results, starting at 0")
+                                            @RequestParam(defaultValue = "0") int page,
+                                            @ApiParam(value = "maximum number of entries in the page")
+                                            @RequestParam(required = false) Integer limit) {
+        int pageLimit = limit == null ? CursorPage.DEFAULT_LIMIT : limit;
+        if (query.trim().isEmpty() || page < 0 || pageLimit < 1) {
+            log.warn("Invalid search of '{}', page {}, limit {}", query, page, pageLimit);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Query must not be blank, page must not be negative and limit must be greater than 0");
+        }
+        SearchPage<Product> results = productService.searchProducts(query, mode, page, Math.min(pageLimit, CursorPage.MAX_LIMIT));
+        return ResponseEntity.ok(results);
+    }
+
     @PostMapping("/save")
     @ApiOperation(value = "Saves Product entry in database",
             notes = "Provide Product data to save.",
@@ -99,14 +267,37 @@ public class ProductController {
         return new ResponseEntity<>(savedProduct, HttpStatus.CREATED);
     }
 
+    /**
+     * Saves a JSON array of product entries. The array is read one entry at a time and written in JDBC batches,
+     * entries failing validation are reported by their index and do not stop the others from being saved.
+     *
+     * @param request the request whose body holds the JSON array of product entries.
+     * @return A ResponseEntity containing the number of received and saved entries and the errors per entry.
+     */
+    @PostMapping("/saveBatch")
+    @ApiOperation(value = "Saves a batch of Product entries in database",
+            notes = "Provide a JSON array of Product data to save.",
+            response = BatchSaveResult.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The request has succeeded"),
+            @ApiResponse(code = 400, message = "The server has Bad Request, cannot process due to an invalid request"),
+            @ApiResponse(code = 500, message = "Server error")})
+    public ResponseEntity<BatchSaveResult> saveProductBatch(HttpServletRequest request) throws IOException {
+        BatchSaveResult result = batchRequestReader.read(new ServletServerHttpRequest(request), Product.class, productService::saveProductBatch);
+        log.info("Product batch saved: {} of {} entries, {} rejected",
+                result.getSaved(), result.getReceived(), result.getErrors().size());
+        return ResponseEntity.ok(result);
+    }
+
     @PutMapping("/edit/{id}")
     @ApiOperation(value = "Edits Product entry by ID",
-            notes = "Provide an id to edit specific product in the database",
+            notes = "Provide an id to edit specific product in the database, and the version of the Product it was read at to reject the edit if the Product was changed since",
             response = Product.class)
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "The request has succeeded"),
             @ApiResponse(code = 400, message = "The server has Bad Request, cannot process due to an invalid request"),
             @ApiResponse(code = 404, message = "The server has not found anything matching the Request-URI"),
+            @ApiResponse(code = 409, message = "The Product was changed concurrently"),
             @ApiResponse(code = 500, message = "Server error")
     })
     public ResponseEntity<?> editProductById(@PathVariable Long id, @RequestBody @Valid Product updatedProduct) {
@@ -119,6 +310,30 @@ public class ProductController {
         return ResponseEntity.ok(editedProduct);
     }
 
+    @PatchMapping("/edit/{id}")
+    @ApiOperation(value = "Partially edits Product entry by ID",
+            notes = "Provide only the fields to change, they are updated with one statement without reading the Product first")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The request has succeeded"),
+            @ApiResponse(code = 400, message = "The server has Bad Request, cannot process due to an invalid request"),
+            @ApiResponse(code = 404, message = "The server has not found anything matching the Request-URI"),
+            @ApiResponse(code = 500, message = "Server error")
+    })
+    public ResponseEntity<String> patchProductById(@PathVariable Long id, @RequestBody @Valid ProductPatch patch) {
+        if (patch.isEmpty()) {
+            log.warn("Empty patch for Product entry with ID: {}", id);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("No field to change provided");
+        }
+        if (patch.getCategoryId() != null && !categoryService.isCategoryPresent(patch.getCategoryId())) {
+            log.warn("Cannot patch Product entry with ID: {}, Category with ID: {} not found", id, patch.getCategoryId());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Category not found with ID: " + patch.getCategoryId());
+        }
+        if (productService.patchProduct(id, patch)) {
+            return ResponseEntity.ok("Product entry with ID " + id + " updated");
+        }
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Product not found with ID: " + id);
+    }
+
     @DeleteMapping("/delete/{id}")
     @ApiOperation(value = "Deletes Product entry by ID",
             notes = "Provide an id to delete specific Product from the database",
@@ -138,6 +353,73 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Product not found with ID: " + id);
     }
 
+    @PostMapping("/reserve/{id}")
+    @ApiOperation(value = "Reserves stock of Product entry by ID",
+            notes = "Takes the quantity from the stock of the Product, only if enough stock is left")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The request has succeeded"),
+            @ApiResponse(code = 400, message = "The server has Bad Request, cannot process due to an invalid request"),
+            @ApiResponse(code = 404, message = "The server has not found anything matching the Request-URI"),
+            @ApiResponse(code = 409, message = "Not enough stock of the Product left"),
+            @ApiResponse(code = 500, message = "Server error")
+    })
+    public ResponseEntity<String> reserveStock(@ApiParam(value = "id of the Product entry", required = true)
+                                               @PathVariable Long id,
+                                               @ApiParam(value = "quantity to reserve", required = true)
+                                               @RequestParam int quantity) {
+        if (quantity < 1) {
+            log.warn("Invalid reservation quantity: {}", quantity);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Quantity must be greater than 0");
+        }
+        if (productService.reserveStock(id, quantity)) {
+            return ResponseEntity.ok("Reserved " + quantity + " of Product with ID " + id);
+        }
+        // the update does not tell a missing product from a short stock, only look it up on failure
+        if (!productService.isProductPresent(id)) {
+            log.warn("Cannot reserve stock of Product entry with ID: {}, Product not found", id);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Product not found with ID: " + id);
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("Not enough stock of Product with ID " + id);
+    }
+
+    @PostMapping("/reserve")
+    @ApiOperation(value = "Reserves stock of several Products at once",
+            notes = "Reserves all Products of the request in one transaction, either all of them or none")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The request has succeeded"),
+            @ApiResponse(code = 400, message = "The server has Bad Request, cannot process due to an invalid request"),
+            @ApiResponse(code = 409, message = "One of the Products does not exist or has not enough stock left"),
+            @ApiResponse(code = 500, message = "Server error")
+    })
+    public ResponseEntity<String> reserveCart(@RequestBody @Valid StockReservationRequest reservationRequest) {
+        productService.reserveCart(reservationRequest.getItems());
+        return ResponseEntity.ok("Reserved " + reservationRequest.getItems().size() + " cart items");
+    }
+
+    @PostMapping("/release/{id}")
+    @ApiOperation(value = "Releases reserved stock of Product entry by ID",
+            notes = "Returns the quantity to the stock of the Product")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The request has succeeded"),
+            @ApiResponse(code = 400, message = "The server has Bad Request, cannot process due to an invalid request"),
+            @ApiResponse(code = 404, message = "The server has not found anything matching the Request-URI"),
+            @ApiResponse(code = 500, message = "Server error")
+    })
+    public ResponseEntity<String> releaseStock(@ApiParam(value = "id of the Product entry", required = true)
+                                               @PathVariable Long id,
+                                               @ApiParam(value = "quantity to release", required = true)
+                                               @RequestParam int quantity) {
+        if (quantity < 1) {
+            log.warn("Invalid release quantity: {}", quantity);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Quantity must be greater than 0");
+        }
+        if (productService.releaseStock(id, quantity)) {
+            return ResponseEntity.ok("Released " + quantity + " of Product with ID " + id);
+        }
+        log.warn("Cannot release stock of Product entry with ID: {}, Product not found", id);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Product not found with ID: " + id);
+    }
+
     /**
      * Retrieves a map of product IDs and their prices based on the list of product IDs which was provided from request.
      *
@@ -145,7 +427,8 @@ public class ProductController {
      * @return A ResponseEntity containing the productInfo map in the response body (with IDs and prices).
      */
 
-    @GetMapping("/getProductInfo")
+    @GetMapping(value = "/getProductInfo", produces = {MediaType.APPLICATION_JSON_VALUE,
+            ProductPricePairsHttpMessageConverter.MEDIA_TYPE_VALUE, MediaType.APPLICATION_CBOR_VALUE, SMILE_MEDIA_TYPE_VALUE})
     @ApiOperation(value = "Get product information -  ID and price",
             notes = "Gets the prices of products based on the provided list of product IDs",
             response = Product.class)
@@ -153,16 +436,45 @@ public class ProductController {
             @ApiResponse(code = 200, message = "The request has succeeded"),
             @ApiResponse(code = 404, message = "The server has not found anything matching the Request-URI"),
             @ApiResponse(code = 500, message = "Server error")})
-    public ResponseEntity<Map<Long, Double>> getProductInfo(@RequestParam List<Long> productIds) {
-        Map<Long, Double> productInfo = productService.getProductInfo(productIds);
+    public ResponseEntity<ProductPriceMap> getProductInfo(@RequestParam List<Long> productIds,
+                                                          @ApiIgnore WebRequest webRequest) {
+        if (webRequest.checkNotModified(catalogVersions.productInfoETag(productIds))) {
+            return null;
+        }
+        return productInfoResponse(productIds);
+    }
+
+    /**
+     * Same as {@link #getProductInfo(List, WebRequest)}, but takes the product IDs from the request body,
+     * so large carts are not limited by the maximum URL length.
+     *
+     * @param productIds List of product IDs - to get information.
+     * @return A ResponseEntity containing the productInfo map in the response body (with IDs and prices).
+     */
+    @PostMapping(value = "/getProductInfo", produces = {MediaType.APPLICATION_JSON_VALUE,
+            ProductPricePairsHttpMessageConverter.MEDIA_TYPE_VALUE, MediaType.APPLICATION_CBOR_VALUE, SMILE_MEDIA_TYPE_VALUE})
+    @ApiOperation(value = "Get product information -  ID and price for a large list of IDs",
+            notes = "Gets the prices of products based on the list of product IDs provided in the request body",
+            response = Product.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The request has succeeded"),
+            @ApiResponse(code = 404, message = "The server has not found anything matching the Request-URI"),
+            @ApiResponse(code = 500, message = "Server error")})
+    public ResponseEntity<ProductPriceMap> getProductInfoForIds(@RequestBody List<Long> productIds) {
+        return productInfoResponse(productIds);
+    }
+
+    private ResponseEntity<ProductPriceMap> productInfoResponse(List<Long> productIds) {
+        ProductPriceMap productInfo = productService.getProductInfo(productIds);
         if (!productInfo.isEmpty()) {
-            log.info("Found productInfo for {} products {}", productInfo.size(), productInfo.entrySet());
+            log.info("Found productInfo for {} products {}", productInfo.size(), LogFormat.abbreviate(productInfo));
             return ResponseEntity.status(HttpStatus.OK).body(productInfo);
         }
-        log.warn("No existing productInfo found for the provided product IDs: " + productIds);
+        log.warn("No existing productInfo found for the provided product IDs: {}", LogFormat.abbreviate(productIds));
         return ResponseEntity.status(HttpStatus.NOT_FOUND).header(
                 "Message",
-                "No productInfo found for the provided product IDs: " + productIds + ". list size: " + productInfo.size()).build();
+                "No productInfo found for the provided product IDs: " + LogFormat.abbreviate(productIds)
+                        + ". list size: " + productInfo.size()).build();
     }
 
 }
@@ -0,0 +1,118 @@
+package com.productsService.web.controller;
+
+import com.productsService.business.service.ReactiveProductService;
+import com.productsService.model.CursorPage;
+import com.productsService.model.Product;
+import com.productsService.swagger.DescriptionVariables;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Non-blocking variant of the product reads of {@link ProductController}, enabled with the reactive profile.
+ * The handlers return Mono and Flux, so the request thread is released while the query runs and
+ * the response is completed from the database driver's event loop.
+ * Product lists requested as NDJSON are streamed with backpressure, one element written per element requested.
+ */
+@Api(tags = DescriptionVariables.PRODUCTS)
+@Slf4j
+@Profile("reactive")
+@RequestMapping("api/v2/products")
+@RestController
+public class ReactiveProductController {
+
+    @Autowired
+    private ReactiveProductService reactiveProductService;
+
+    @GetMapping(value = "/allProducts", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    @ApiOperation(value = "Streams all Products entries",
+            notes = "Returns all Products entries ordered by id, or one page of them if afterId or limit is provided",
+            response = Product.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The request has succeeded"),
+            @ApiResponse(code = 400, message = "The server has Bad Request, cannot process due to an invalid request"),
+            @ApiResponse(code = 500, message = "Server error")})
+    public Flux<Product> getAllProductsEntries(@ApiParam(value = "id after which the page starts")
+                                               @RequestParam(required = false) Long afterId,
+                                               @ApiParam(value = "maximum number of entries in the page")
+                                               @RequestParam(required = false) Integer limit) {
+        if (afterId == null && limit == null) {
+            return reactiveProductService.streamProducts();
+        }
+        int pageLimit = limit == null ? CursorPage.DEFAULT_LIMIT : limit;
+        if (pageLimit < 1) {
+            log.warn("Invalid page limit: {}", pageLimit);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page limit must be greater than 0");
+        }
+        return reactiveProductService.getProductsPage(afterId, Math.min(pageLimit, CursorPage.MAX_LIMIT));
+    }
+
+    @GetMapping("/getById/{id}")
+    @ApiOperation(value = "Finds Product by ID",
+            notes = "Provide an id to look up specific product from the database",
+            response = Product.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The request has succeeded"),
+            @ApiResponse(code = 404, message = "The server has not found anything matching the Request-URI"),
+            @ApiResponse(code = 500, message = "Server error")})
+    public Mono<ResponseEntity<Product>> getProductById(@ApiParam(value = "id of the Product entry", required = true)
+                                                        @PathVariable Long id) {
+        return reactiveProductService.findProductById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    @GetMapping("/getProductInfo")
+    @ApiOperation(value = "Get product information -  ID and price",
+            notes = "Gets the prices of products based on the provided list of product IDs",
+            response = Product.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The request has succeeded"),
+            @ApiResponse(code = 404, message = "The server has not found anything matching the Request-URI"),
+            @ApiResponse(code = 500, message = "Server error")})
+    public Mono<ResponseEntity<Map<Long, Double>>> getProductInfo(@RequestParam List<Long> productIds) {
+        return productInfoResponse(productIds);
+    }
+
+    @PostMapping("/getProductInfo")
+    @ApiOperation(value = "Get product information -  ID and price for a large list of IDs",
+            notes = "Gets the prices of products based on the list of product IDs provided in the request body",
+            response = Product.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The request has succeeded"),
+            @ApiResponse(code = 404, message = "The server has not found anything matching the Request-URI"),
+            @ApiResponse(code = 500, message = "Server error")})
+    public Mono<ResponseEntity<Map<Long, Double>>> getProductInfoForIds(@RequestBody List<Long> productIds) {
+        return productInfoResponse(productIds);
+    }
+
+    private Mono<ResponseEntity<Map<Long, Double>>> productInfoResponse(List<Long> productIds) {
+        return reactiveProductService.getProductInfo(productIds)
+                .map(productInfo -> productInfo.isEmpty()
+                        ? ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .header("Message", "No productInfo found for the provided product IDs")
+                        .<Map<Long, Double>>build()
+                        : ResponseEntity.ok(productInfo));
+    }
+}
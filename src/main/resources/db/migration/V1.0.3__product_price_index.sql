@@ -0,0 +1,2 @@
+-- covering index for batched (id, price) lookups used by getProductInfo
+CREATE INDEX idx_products_id_price ON products (id, price);
@@ -0,0 +1,11 @@
+-- id blocks for the pooled-lo table generators of ProductDAO and CategoryDAO
+CREATE TABLE id_generator (
+  sequence_name VARCHAR(64) PRIMARY KEY NOT NULL,
+  next_val BIGINT NOT NULL
+);
+
+INSERT INTO id_generator (sequence_name, next_val)
+SELECT 'products', COALESCE(MAX(id), 0) + 1 FROM products;
+
+INSERT INTO id_generator (sequence_name, next_val)
+SELECT 'category', COALESCE(MAX(id), 0) + 1 FROM category;
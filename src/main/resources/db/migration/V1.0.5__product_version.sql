@@ -0,0 +1,2 @@
+-- optimistic locking version of ProductDAO
+ALTER TABLE products ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
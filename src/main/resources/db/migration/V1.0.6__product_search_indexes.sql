@@ -0,0 +1,4 @@
+-- name prefix lookups of the typeahead search
+CREATE INDEX idx_products_name ON products (name);
+-- ranked token search over name and description
+CREATE FULLTEXT INDEX idx_products_name_description ON products (name, description);
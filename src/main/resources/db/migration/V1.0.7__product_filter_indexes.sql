@@ -0,0 +1,5 @@
+-- filtered product queries of one category, sorted by price or name, id being part of every secondary index
+CREATE INDEX idx_products_category_price ON products (category_id, price);
+CREATE INDEX idx_products_category_name ON products (category_id, name);
+-- filtered product queries over all categories sorted by price, sorting by name uses idx_products_name
+CREATE INDEX idx_products_price ON products (price);
@@ -0,0 +1,37 @@
+package com.productsService.business.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class CatalogVersionsTest {
+
+    @Test
+    void testETags_ChangeWithWrites() {
+        CatalogVersions catalogVersions = new CatalogVersions(Duration.ZERO, Duration.ofHours(1));
+        String productETag = catalogVersions.productETag(1L);
+        String otherProductETag = catalogVersions.productETag(2L);
+        String collectionETag = catalogVersions.productCollectionETag();
+
+        catalogVersions.productChanged(1L);
+
+        assertNotEquals(productETag, catalogVersions.productETag(1L));
+        assertEquals(otherProductETag, catalogVersions.productETag(2L));
+        assertNotEquals(collectionETag, catalogVersions.productCollectionETag());
+    }
+
+    @Test
+    void testETags_ChangeWhenExpireAfterWritePeriodEnds() throws InterruptedException {
+        CatalogVersions catalogVersions = new CatalogVersions(Duration.ZERO, Duration.ofMillis(20));
+        String productETag = catalogVersions.productETag(1L);
+        String categoryETag = catalogVersions.categoryCollectionETag();
+
+        Thread.sleep(40);
+
+        assertNotEquals(productETag, catalogVersions.productETag(1L));
+        assertNotEquals(categoryETag, catalogVersions.categoryCollectionETag());
+    }
+}
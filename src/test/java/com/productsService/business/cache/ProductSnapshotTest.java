@@ -0,0 +1,136 @@
+package com.productsService.business.cache;
+
+import com.productsService.business.repository.model.ProductDAO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductSnapshotTest {
+
+    @TempDir
+    Path directory;
+    @Mock
+    private ProductSnapshotWriter writer;
+
+    private Path file;
+    private List<ProductDAO> products;
+    private ProductSnapshot productSnapshot;
+
+    @BeforeEach
+    public void init() throws IOException {
+        file = directory.resolve("products.snapshot");
+        products = new ArrayList<>(Arrays.asList(
+                new ProductDAO(2L, "Radio", null, 19.99, 3, 1L),
+                new ProductDAO(5L, "Lamp", null, 7.5, 0, 2L),
+                new ProductDAO(9L, "Towel", null, 4.25, 12, 1L)));
+        lenient().doAnswer(invocation -> ProductSnapshotFile.write(invocation.getArgument(0), products.iterator()))
+                .when(writer).write(any());
+        productSnapshot = new ProductSnapshot(true, file.toString(), Duration.ofMinutes(10), writer);
+    }
+
+    @Test
+    void testRotate_LookupsServedFromFile() throws IOException {
+        productSnapshot.rotate();
+        assertEquals(19.99, productSnapshot.findPrice(2L).getAsDouble());
+        assertEquals(4.25, productSnapshot.findPrice(9L).getAsDouble());
+        assertFalse(productSnapshot.findPrice(1L).isPresent());
+        assertFalse(productSnapshot.findPrice(6L).isPresent());
+        assertFalse(productSnapshot.findPrice(10L).isPresent());
+        assertTrue(productSnapshot.contains(5L));
+        ProductSnapshotFile snapshotFile = ProductSnapshotFile.map(file);
+        assertEquals(3, snapshotFile.size());
+        assertEquals(12, snapshotFile.quantity(snapshotFile.indexOf(9L)));
+        assertEquals(2L, snapshotFile.categoryId(snapshotFile.indexOf(5L)));
+        assertEquals(ProductSnapshotFile.HEADER_BYTES + 3 * ProductSnapshotFile.RECORD_BYTES, Files.size(file));
+    }
+
+    @Test
+    void testOverlay_AppliedUntilNextRotation() {
+        productSnapshot.rotate();
+        productSnapshot.productsSaved(Collections.singletonList(new ProductDAO(11L, "Mug", null, 8.0, 1, 2L)));
+        productSnapshot.productChanged(2L);
+        assertEquals(8.0, productSnapshot.findPrice(11L).getAsDouble());
+        assertFalse(productSnapshot.findPrice(2L).isPresent());
+        products.remove(0);
+        products.add(new ProductDAO(11L, "Mug", null, 8.0, 1, 2L));
+        productSnapshot.rotate();
+        assertFalse(productSnapshot.contains(2L));
+        assertEquals(8.0, productSnapshot.findPrice(11L).getAsDouble());
+    }
+
+    @Test
+    void testCategoryRemoved_ProductsIgnored() {
+        productSnapshot.rotate();
+        productSnapshot.categoryRemoved(1L);
+        assertFalse(productSnapshot.findPrice(2L).isPresent());
+        assertFalse(productSnapshot.findPrice(9L).isPresent());
+        assertEquals(7.5, productSnapshot.findPrice(5L).getAsDouble());
+    }
+
+    @Test
+    void testCategoryRemoved_OverlayProductsIgnored() {
+        productSnapshot.rotate();
+        productSnapshot.productsSaved(Arrays.asList(new ProductDAO(11L, "Mug", null, 8.0, 1, 1L),
+                new ProductDAO(2L, "Radio", null, 17.5, 3, 1L),
+                new ProductDAO(12L, "Vase", null, 3.0, 1, 2L)));
+        productSnapshot.categoryRemoved(1L);
+        assertFalse(productSnapshot.findPrice(11L).isPresent());
+        assertFalse(productSnapshot.contains(2L));
+        assertEquals(3.0, productSnapshot.findPrice(12L).getAsDouble());
+    }
+
+    @Test
+    void testFailedRotation_PreviousSnapshotKept() throws IOException {
+        productSnapshot.rotate();
+        doThrow(new IOException("Database unavailable")).when(writer).write(any());
+        productSnapshot.rotate();
+        assertEquals(19.99, productSnapshot.findPrice(2L).getAsDouble());
+    }
+
+    @Test
+    void testRestart_ExistingFileServed() throws IOException {
+        productSnapshot.rotate();
+        ProductSnapshot restartedSnapshot = new ProductSnapshot(true, file.toString(), Duration.ofMinutes(10),
+                mock(ProductSnapshotWriter.class));
+        restartedSnapshot.start();
+        assertEquals(19.99, restartedSnapshot.findPrice(2L).getAsDouble());
+        restartedSnapshot.destroy();
+    }
+
+    @Test
+    void testDisabled_NothingServed() {
+        ProductSnapshot disabledSnapshot = new ProductSnapshot(false, file.toString(), Duration.ofMinutes(10), writer);
+        disabledSnapshot.start();
+        disabledSnapshot.productsSaved(Collections.singletonList(new ProductDAO(11L, "Mug", null, 8.0, 1, 2L)));
+        assertFalse(disabledSnapshot.findPrice(11L).isPresent());
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void testWrite_UnorderedProducts_Rejected() {
+        products.add(new ProductDAO(3L, "Cup", null, 1.0, 1, 1L));
+        assertThrows(IllegalStateException.class, () -> ProductSnapshotFile.write(file, products.iterator()));
+    }
+}
@@ -0,0 +1,174 @@
+package com.productsService.business.events;
+
+import com.productsService.model.CatalogChange;
+import com.productsService.model.CatalogChangeType;
+import com.productsService.model.CatalogEntity;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CatalogChangeLogTest {
+
+    private final CatalogChangeLog changeLog = new CatalogChangeLog(3);
+
+    @Test
+    void testEventId_OnlyVersionsOfThisInstanceResolved() {
+        assertEquals(42L, changeLog.versionOf(changeLog.eventId(42L)));
+        assertEquals(-1L, new CatalogChangeLog(3).versionOf(changeLog.eventId(42L)));
+        assertThrows(IllegalArgumentException.class, () -> changeLog.versionOf("42"));
+        assertThrows(IllegalArgumentException.class, () -> changeLog.versionOf("abc-def"));
+    }
+
+    @Test
+    void testRecord_VersionsIncreaseAndListenersNotified() {
+        RecordingListener listener = new RecordingListener();
+        assertTrue(changeLog.subscribe(null, listener));
+        long startVersion = changeLog.getLatestVersion();
+        changeLog.record(CatalogChangedEvent.created(CatalogEntity.PRODUCT, 5L, 0L, Collections.singletonMap("price", 4.99)));
+        changeLog.record(CatalogChangedEvent.deleted(CatalogEntity.CATEGORY, 2L));
+        assertEquals(2, listener.changes.size());
+        CatalogChange created = listener.changes.get(0);
+        assertEquals(startVersion + 1, created.getVersion());
+        assertEquals(CatalogEntity.PRODUCT, created.getEntity());
+        assertEquals(CatalogChangeType.CREATED, created.getType());
+        assertEquals(5L, created.getId());
+        assertEquals(0L, created.getEntityVersion());
+        assertEquals(4.99, created.getFields().get("price"));
+        assertEquals(startVersion + 2, listener.changes.get(1).getVersion());
+
+        changeLog.unsubscribe(listener);
+        changeLog.record(CatalogChangedEvent.deleted(CatalogEntity.PRODUCT, 5L));
+        assertEquals(2, listener.changes.size());
+    }
+
+    @Test
+    void testSubscribe_RetainedChangesReplayed() {
+        long startVersion = changeLog.getLatestVersion();
+        for (long id = 1; id <= 4; id++) {
+            changeLog.record(CatalogChangedEvent.deleted(CatalogEntity.PRODUCT, id));
+        }
+        RecordingListener listener = new RecordingListener();
+        assertTrue(changeLog.subscribe(startVersion + 2, listener));
+        assertEquals(2, listener.changes.size());
+        assertEquals(3L, listener.changes.get(0).getId());
+        assertEquals(startVersion + 4, listener.changes.get(1).getVersion());
+
+        RecordingListener upToDateListener = new RecordingListener();
+        assertTrue(changeLog.subscribe(startVersion + 4, upToDateListener));
+        assertTrue(upToDateListener.changes.isEmpty());
+        assertFalse(upToDateListener.lost);
+    }
+
+    @Test
+    void testSubscribe_EvictedOrUnknownVersion_ChangesLost() {
+        long startVersion = changeLog.getLatestVersion();
+        for (long id = 1; id <= 4; id++) {
+            changeLog.record(CatalogChangedEvent.deleted(CatalogEntity.PRODUCT, id));
+        }
+        RecordingListener evictedListener = new RecordingListener();
+        assertFalse(changeLog.subscribe(startVersion, evictedListener));
+        assertTrue(evictedListener.lost);
+        assertTrue(evictedListener.changes.isEmpty());
+
+        RecordingListener futureListener = new RecordingListener();
+        assertFalse(changeLog.subscribe(startVersion + 5, futureListener));
+        assertTrue(futureListener.lost);
+
+        changeLog.record(CatalogChangedEvent.deleted(CatalogEntity.PRODUCT, 5L));
+        assertEquals(1, evictedListener.changes.size());
+    }
+
+    @Test
+    void testRecord_SlowListener_OtherRecordsNotBlocked() throws Exception {
+        CountDownLatch listenerEntered = new CountDownLatch(1);
+        CountDownLatch listenerReleased = new CountDownLatch(1);
+        RecordingListener listener = new RecordingListener() {
+            @Override
+            public void changed(CatalogChange change) {
+                super.changed(change);
+                listenerEntered.countDown();
+                try {
+                    listenerReleased.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        changeLog.subscribe(null, listener);
+        long startVersion = changeLog.getLatestVersion();
+        Thread slowDelivery = new Thread(() -> changeLog.record(CatalogChangedEvent.deleted(CatalogEntity.PRODUCT, 1L)));
+        slowDelivery.start();
+        assertTrue(listenerEntered.await(5, TimeUnit.SECONDS));
+
+        changeLog.record(CatalogChangedEvent.deleted(CatalogEntity.PRODUCT, 2L));
+        assertTrue(changeLog.subscribe(startVersion, new RecordingListener()));
+        assertEquals(startVersion + 2, changeLog.getLatestVersion());
+
+        listenerReleased.countDown();
+        slowDelivery.join(5000);
+        assertEquals(2, listener.changes.size());
+        assertEquals(2L, listener.changes.get(1).getId());
+    }
+
+    @Test
+    void testConcurrentRecordsAndSubscribers_ChangesDeliveredInVersionOrder() throws Exception {
+        CatalogChangeLog largeChangeLog = new CatalogChangeLog(10000);
+        long startVersion = largeChangeLog.getLatestVersion();
+        RecordingListener listener = new RecordingListener();
+        largeChangeLog.subscribe(null, listener);
+        List<RecordingListener> lateListeners = new ArrayList<>();
+        Thread[] writers = new Thread[4];
+        for (int i = 0; i < writers.length; i++) {
+            writers[i] = new Thread(() -> {
+                for (long id = 1; id <= 500; id++) {
+                    largeChangeLog.record(CatalogChangedEvent.deleted(CatalogEntity.PRODUCT, id));
+                }
+            });
+            writers[i].start();
+        }
+        for (int i = 0; i < 10; i++) {
+            RecordingListener lateListener = new RecordingListener();
+            lateListeners.add(lateListener);
+            assertTrue(largeChangeLog.subscribe(startVersion, lateListener));
+        }
+        for (Thread writer : writers) {
+            writer.join(5000);
+        }
+
+        assertVersionsInOrder(startVersion, 2000, listener);
+        for (RecordingListener lateListener : lateListeners) {
+            assertVersionsInOrder(startVersion, 2000, lateListener);
+        }
+    }
+
+    private static void assertVersionsInOrder(long startVersion, int count, RecordingListener listener) {
+        assertEquals(count, listener.changes.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(startVersion + i + 1, listener.changes.get(i).getVersion());
+        }
+    }
+
+    private static class RecordingListener implements CatalogChangeListener {
+        private final List<CatalogChange> changes = new ArrayList<>();
+        private boolean lost;
+
+        @Override
+        public void changed(CatalogChange change) {
+            changes.add(change);
+        }
+
+        @Override
+        public void changesLost() {
+            lost = true;
+        }
+    }
+}
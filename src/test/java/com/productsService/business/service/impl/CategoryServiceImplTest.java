@@ -1,30 +1,56 @@
 package com.productsService.business.service.impl;
 
+import com.productsService.business.cache.CatalogVersions;
+import com.productsService.business.cache.CategoryIdRegistry;
+import com.productsService.business.cache.ProductCache;
+import com.productsService.business.cache.ProductSnapshot;
+import com.productsService.business.events.CatalogChangedEvent;
 import com.productsService.business.mappers.CategoryMapper;
 import com.productsService.business.repository.CategoryRepository;
 import com.productsService.business.repository.ProductRepository;
 import com.productsService.business.repository.model.CategoryDAO;
+import com.productsService.business.repository.model.CategorySummaryView;
 import com.productsService.business.repository.model.ProductDAO;
+import com.productsService.model.BatchItem;
+import com.productsService.model.BatchSaveResult;
+import com.productsService.model.CatalogEntity;
 import com.productsService.model.Category;
+import com.productsService.model.CategoryDeletionJob;
+import com.productsService.model.CategoryPatch;
+import com.productsService.model.CategorySummary;
+import com.productsService.model.CursorPage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -39,6 +65,20 @@ public class CategoryServiceImplTest {
     private ProductRepository productRepository;
     @Mock
     private CategoryMapper categoryMapper;
+    @Mock
+    private ProductCache productCache;
+    @Mock
+    private ProductSnapshot productSnapshot;
+    @Mock
+    private CatalogVersions catalogVersions;
+    @Mock
+    private CategoryIdRegistry categoryIdRegistry;
+    @Mock
+    private TaskExecutor taskExecutor;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
     @InjectMocks
     private CategoryServiceImpl categoryService;
 
@@ -79,6 +119,27 @@ public class CategoryServiceImplTest {
         assertTrue(result.isEmpty());
     }
 
+    @Test
+     void testGetCategoriesPage_LastPage_Successful() {
+        when(categoryRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 11))).thenReturn(categoryDAOList);
+        when(categoryMapper.daoToCategory(categoryDAO)).thenReturn(category);
+        CursorPage<Category> page = categoryService.getCategoriesPage(null, 10);
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+     void testGetCategorySummaries_Successful() {
+        when(categoryRepository.findSummaries()).thenReturn(Arrays.asList(
+                createSummaryView(1L, "Radios", 2L, 7L, 9.5, 20.0),
+                createSummaryView(2L, "Empty", 0L, null, null, null)));
+        List<CategorySummary> summaries = categoryService.getCategorySummaries();
+        assertEquals(Arrays.asList(
+                new CategorySummary(1L, "Radios", 2, 7, 9.5, 20.0),
+                new CategorySummary(2L, "Empty", 0, 0, null, null)), summaries);
+        verify(categoryRepository, never()).findAll();
+    }
+
     @Test
      void findCategoryById_Successful() {
         when(categoryRepository.findById(1L)).thenReturn(Optional.of(categoryDAO));
@@ -107,7 +168,33 @@ public class CategoryServiceImplTest {
         assertEquals(category, savedCategory);
         verify(categoryMapper).categoryToDAO(category);
         verify(categoryRepository, times(1)).save(categoryDAO);
+        verify(categoryIdRegistry, times(1)).add(category.getId());
+        verify(catalogVersions, times(1)).categoriesChanged();
         verify(categoryMapper).daoToCategory(categoryDAO);
+        verify(eventPublisher, times(1)).publishEvent(CatalogChangedEvent.created(CatalogEntity.CATEGORY, 1L,
+                Collections.singletonMap("name", "art")));
+    }
+
+    @Test
+     void testSaveCategoryBatch_DuplicateAndInvalidNamesReported() {
+        List<BatchItem<Category>> batch = Arrays.asList(
+                new BatchItem<>(0, category),
+                new BatchItem<>(1, new Category(null, "art")),
+                new BatchItem<>(2, new Category(null, "books")),
+                new BatchItem<>(3, new Category(null, " ")));
+        when(categoryRepository.findExistingNames(any())).thenReturn(Collections.singletonList("books"));
+        when(categoryMapper.categoryToDAO(category)).thenReturn(categoryDAO);
+        BatchSaveResult result = categoryService.saveCategoryBatch(batch);
+        assertEquals(4, result.getReceived());
+        assertEquals(1, result.getSaved());
+        assertEquals(3, result.getErrors().size());
+        assertEquals(1, result.getErrors().get(0).getIndex());
+        assertEquals("Sorry, the category name art is already registered.", result.getErrors().get(0).getMessages().get(0));
+        assertEquals(2, result.getErrors().get(1).getIndex());
+        assertEquals(3, result.getErrors().get(2).getIndex());
+        verify(categoryRepository, times(1)).saveAll(Collections.singletonList(categoryDAO));
+        verify(categoryIdRegistry, times(1)).addAll(Collections.singletonList(categoryDAO.getId()));
+        verify(catalogVersions, times(1)).categoriesChanged();
     }
 
     @Test
@@ -120,7 +207,10 @@ public class CategoryServiceImplTest {
         assertEquals(category, result);
         verify(categoryRepository, times(1)).findById(1L);
         verify(categoryRepository, times(1)).save(oldCategoryDAO);
+        verify(catalogVersions, times(1)).categoriesChanged();
         verify(categoryMapper, times(1)).daoToCategory(categoryDAO);
+        verify(eventPublisher, times(1)).publishEvent(CatalogChangedEvent.updated(CatalogEntity.CATEGORY, 1L,
+                Collections.singletonMap("name", "art")));
     }
 
     @Test
@@ -133,22 +223,146 @@ public class CategoryServiceImplTest {
         verify(categoryMapper, never()).daoToCategory(any());
     }
 
+    @Test
+     void testPatchCategoryById_Successful() {
+        when(categoryRepository.updateName(1L, "garden")).thenReturn(1);
+        assertTrue(categoryService.patchCategory(1L, new CategoryPatch("garden")));
+        verify(categoryRepository, never()).findById(anyLong());
+        verify(catalogVersions, times(1)).categoriesChanged();
+    }
+
+    @Test
+     void testPatchCategoryById_NonExistingId_Failed() {
+        when(categoryRepository.updateName(99L, "garden")).thenReturn(0);
+        assertFalse(categoryService.patchCategory(99L, new CategoryPatch("garden")));
+        verify(catalogVersions, never()).categoriesChanged();
+    }
+
     @Test
      void testDeleteCategoryById_Successful_WithRelatedProducts() {
-        when(categoryRepository.findById(1L)).thenReturn(Optional.of(categoryDAOWithRelatedProducts));
+        when(productRepository.deleteChunkByCategoryId(1L, CategoryServiceImpl.DELETE_CHUNK_SIZE))
+                .thenReturn(CategoryServiceImpl.DELETE_CHUNK_SIZE, 5);
         categoryService.deleteCategoryById(1L);
-        verify(productRepository, times(1)).deleteAll(categoryDAOWithRelatedProducts.getProducts());
-        verify(categoryRepository, times(1)).delete(categoryDAOWithRelatedProducts);
+        verify(productRepository, times(2)).deleteChunkByCategoryId(1L, CategoryServiceImpl.DELETE_CHUNK_SIZE);
+        verify(productRepository, never()).deleteAll(anyList());
+        verify(categoryRepository, times(1)).deleteById(1L);
+        verify(categoryIdRegistry, times(1)).markDeleting(1L);
+        verify(categoryIdRegistry, times(1)).remove(1L);
+        verify(categoryIdRegistry, times(1)).deletionFinished(1L);
+        verify(productSnapshot, times(2)).categoryRemoved(1L);
+        verify(productCache, times(1)).invalidateAll();
+        verify(catalogVersions, times(1)).allProductsChanged();
+        verify(catalogVersions, times(1)).categoriesChanged();
+        verify(eventPublisher, times(1)).publishEvent(CatalogChangedEvent.deleted(CatalogEntity.CATEGORY, 1L));
     }
     @Test
      void testDeleteCategoryById_Successful_WithoutRelatedProducts() {
-        when(categoryRepository.findById(1L)).thenReturn(Optional.of(categoryDAO));
+        when(productRepository.deleteChunkByCategoryId(1L, CategoryServiceImpl.DELETE_CHUNK_SIZE)).thenReturn(0);
         categoryService.deleteCategoryById(1L);
-        verify(productRepository, never()).deleteAll(anyList());
-        verify(categoryRepository, times(1)).delete(categoryDAO);
+        verify(productRepository, times(1)).deleteChunkByCategoryId(1L, CategoryServiceImpl.DELETE_CHUNK_SIZE);
+        verify(categoryRepository, never()).findById(anyLong());
+        verify(categoryRepository, times(1)).deleteById(1L);
+    }
+
+    @Test
+     void testDeleteCategoryById_ProductsAddedMeanwhile_DeletedOnRetry() {
+        when(productRepository.deleteChunkByCategoryId(1L, CategoryServiceImpl.DELETE_CHUNK_SIZE)).thenReturn(4, 1);
+        doThrow(new DataIntegrityViolationException("foreign key constraint fails"))
+                .doNothing()
+                .when(categoryRepository).deleteById(1L);
+        categoryService.deleteCategoryById(1L);
+        verify(productRepository, times(2)).deleteChunkByCategoryId(1L, CategoryServiceImpl.DELETE_CHUNK_SIZE);
+        verify(categoryRepository, times(2)).deleteById(1L);
+        verify(categoryIdRegistry, times(1)).remove(1L);
+    }
+
+    @Test
+     void testDeleteCategoryById_ProductsKeptBeingAdded_Failed() {
+        when(productRepository.deleteChunkByCategoryId(1L, CategoryServiceImpl.DELETE_CHUNK_SIZE)).thenReturn(1);
+        doThrow(new DataIntegrityViolationException("foreign key constraint fails"))
+                .when(categoryRepository).deleteById(1L);
+        assertThrows(DataIntegrityViolationException.class, () -> categoryService.deleteCategoryById(1L));
+        verify(categoryRepository, times(CategoryServiceImpl.MAX_CATEGORY_DELETE_ATTEMPTS)).deleteById(1L);
+        verify(categoryIdRegistry, never()).remove(anyLong());
+        verify(categoryIdRegistry, times(1)).deletionFinished(1L);
+    }
+
+    @Test
+     void testDeleteCategoryById_JobRunning_RunningJobReturned() {
+        CategoryDeletionJob runningJob = categoryService.startCategoryDeletion(1L);
+        assertEquals(runningJob, categoryService.deleteCategoryById(1L));
+        assertTrue(runningJob.isRunning());
+        verify(categoryRepository, never()).deleteById(anyLong());
+        verify(categoryIdRegistry, times(1)).markDeleting(1L);
+        verify(categoryIdRegistry, never()).deletionFinished(anyLong());
+    }
+
+    @Test
+     void testDeleteCategoryById_Completed_NewJobCanStart() {
+        when(productRepository.deleteChunkByCategoryId(1L, CategoryServiceImpl.DELETE_CHUNK_SIZE)).thenReturn(2);
+        CategoryDeletionJob job = categoryService.deleteCategoryById(1L);
+        assertEquals(CategoryDeletionJob.Status.COMPLETED, job.getStatus());
+        assertEquals(2, job.getDeletedProducts());
+        assertFalse(categoryService.findRunningCategoryDeletionJob(1L).isPresent());
+        assertNotEquals(job, categoryService.startCategoryDeletion(1L));
+    }
+
+    @Test
+     void testStartCategoryDeletion_Successful() {
+        doAnswer(invocation -> {
+            Runnable task = invocation.getArgument(0);
+            task.run();
+            return null;
+        }).when(taskExecutor).execute(any());
+        when(productRepository.deleteChunkByCategoryId(1L, CategoryServiceImpl.DELETE_CHUNK_SIZE)).thenReturn(3);
+        CategoryDeletionJob job = categoryService.startCategoryDeletion(1L);
+        assertEquals(CategoryDeletionJob.Status.COMPLETED, job.getStatus());
+        assertEquals(3, job.getDeletedProducts());
+        assertNotNull(job.getFinishedAt());
+        assertEquals(job, categoryService.findCategoryDeletionJob(job.getId()).orElse(null));
+        verify(categoryRepository, times(1)).deleteById(1L);
+    }
+
+    @Test
+     void testStartCategoryDeletion_AlreadyRunning_SameJobReturned() {
+        CategoryDeletionJob job = categoryService.startCategoryDeletion(1L);
+        assertTrue(job.isRunning());
+        assertEquals(job, categoryService.startCategoryDeletion(1L));
+        verify(taskExecutor, times(1)).execute(any());
     }
 
+    @Test
+     void testStartCategoryDeletion_AfterFinishedJob_NewJobStarted() {
+        doAnswer(invocation -> {
+            Runnable task = invocation.getArgument(0);
+            task.run();
+            return null;
+        }).when(taskExecutor).execute(any());
+        CategoryDeletionJob firstJob = categoryService.startCategoryDeletion(1L);
+        CategoryDeletionJob secondJob = categoryService.startCategoryDeletion(1L);
+        assertNotEquals(firstJob.getId(), secondJob.getId());
+        verify(taskExecutor, times(2)).execute(any());
+    }
 
+    @Test
+     void testStartCategoryDeletion_Failed() {
+        doAnswer(invocation -> {
+            Runnable task = invocation.getArgument(0);
+            task.run();
+            return null;
+        }).when(taskExecutor).execute(any());
+        when(productRepository.deleteChunkByCategoryId(1L, CategoryServiceImpl.DELETE_CHUNK_SIZE))
+                .thenThrow(new IllegalStateException("lock wait timeout"));
+        CategoryDeletionJob job = categoryService.startCategoryDeletion(1L);
+        assertEquals(CategoryDeletionJob.Status.FAILED, job.getStatus());
+        assertEquals("lock wait timeout", job.getError());
+        verify(categoryRepository, never()).deleteById(anyLong());
+    }
+
+    @Test
+     void testFindCategoryDeletionJob_NonExistingId_Failed() {
+        assertFalse(categoryService.findCategoryDeletionJob("unknown").isPresent());
+    }
 
     @Test
      void testIsCategoryNameExisting_CategoryNameExists() {
@@ -168,18 +382,35 @@ public class CategoryServiceImplTest {
 
     @Test
      void testIsCategoryPresent_CategoryExists() {
-        when(categoryRepository.existsById(1L)).thenReturn(true);
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(categoryDAO));
         boolean result = categoryService.isCategoryPresent(1L);
         assertTrue(result);
-        verify(categoryRepository, times(1)).existsById(1L);
+        verify(categoryRepository, times(1)).findById(1L);
+        verify(categoryIdRegistry, times(1)).add(1L);
+    }
+
+    @Test
+     void testIsCategoryPresent_RegisteredId_NoQuery() {
+        when(categoryIdRegistry.contains(1L)).thenReturn(true);
+        boolean result = categoryService.isCategoryPresent(1L);
+        assertTrue(result);
+        verify(categoryRepository, never()).findById(anyLong());
+    }
+
+    @Test
+     void testIsCategoryPresent_BeingDeleted_False() {
+        when(categoryIdRegistry.isDeleting(1L)).thenReturn(true);
+        assertFalse(categoryService.isCategoryPresent(1L));
+        verify(categoryRepository, never()).findById(anyLong());
     }
 
     @Test
      void testIsCategoryPresent_CategoryDoesNotExist() {
-        when(categoryRepository.existsById(99L)).thenReturn(false);
+        when(categoryRepository.findById(99L)).thenReturn(Optional.empty());
         boolean result = categoryService.isCategoryPresent(99L);
         assertFalse(result);
-        verify(categoryRepository, times(1)).existsById(99L);
+        verify(categoryRepository, times(1)).findById(99L);
+        verify(categoryIdRegistry, never()).add(anyLong());
     }
 
 
@@ -212,4 +443,33 @@ public class CategoryServiceImplTest {
     private CategoryDAO createCategoryDAOWithRelatedProducts(List<ProductDAO> listOfProducts) {
         return new CategoryDAO(1L, "art", listOfProducts);
     }
+
+    private static CategorySummaryView createSummaryView(Long id, String name, Long productCount, Long totalQuantity,
+                                                         Double minPrice, Double maxPrice) {
+        return new CategorySummaryView() {
+            public Long getId() {
+                return id;
+            }
+
+            public String getName() {
+                return name;
+            }
+
+            public Long getProductCount() {
+                return productCount;
+            }
+
+            public Long getTotalQuantity() {
+                return totalQuantity;
+            }
+
+            public Double getMinPrice() {
+                return minPrice;
+            }
+
+            public Double getMaxPrice() {
+                return maxPrice;
+            }
+        };
+    }
 }
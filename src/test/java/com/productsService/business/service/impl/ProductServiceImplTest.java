@@ -1,31 +1,66 @@
 package com.productsService.business.service.impl;
 
+import com.productsService.business.cache.CatalogVersions;
+import com.productsService.business.cache.ProductCache;
+import com.productsService.business.cache.ProductSnapshot;
+import com.productsService.business.events.CatalogChangedEvent;
+import com.productsService.business.exceptions.InsufficientStockException;
 import com.productsService.business.mappers.ProductMapper;
+import com.productsService.business.repository.CategoryRepository;
 import com.productsService.business.repository.ProductRepository;
 import com.productsService.business.repository.model.ProductDAO;
+import com.productsService.business.repository.model.ProductPriceView;
+import com.productsService.model.BatchItem;
+import com.productsService.model.BatchSaveResult;
+import com.productsService.model.CatalogEntity;
+import com.productsService.model.CursorPage;
+import com.productsService.model.KeysetPage;
 import com.productsService.model.Product;
+import com.productsService.model.ProductCursor;
+import com.productsService.model.ProductFilter;
+import com.productsService.model.ProductPatch;
+import com.productsService.model.ProductSearchMode;
+import com.productsService.model.ProductSort;
+import com.productsService.model.SearchPage;
+import com.productsService.model.StockReservation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 
+import javax.persistence.EntityManager;
+import javax.validation.Validation;
+import javax.validation.Validator;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalDouble;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -38,6 +73,20 @@ public class ProductServiceImplTest {
     private ProductRepository productRepository;
     @Mock
     private ProductMapper productMapper;
+    @Mock
+    private ProductCache productCache;
+    @Mock
+    private ProductSnapshot productSnapshot;
+    @Mock
+    private CatalogVersions catalogVersions;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private CategoryRepository categoryRepository;
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -73,6 +122,34 @@ public class ProductServiceImplTest {
     }
 
 
+    @Test
+    void testGetProductsPage_HasNextPage_Successful() {
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 2))).thenReturn(productDAOList);
+        when(productMapper.daoToProduct(productDAO)).thenReturn(product);
+        CursorPage<Product> page = productService.getProductsPage(null, 1);
+        assertEquals(1, page.getItems().size());
+        assertEquals(product.getId(), page.getNextCursor());
+    }
+
+    @Test
+    void testGetProductsPage_LastPage_Successful() {
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(1L, PageRequest.of(0, 3))).thenReturn(productDAOList);
+        when(productMapper.daoToProduct(productDAO)).thenReturn(product);
+        CursorPage<Product> page = productService.getProductsPage(1L, 2);
+        assertEquals(2, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testExportProducts_Successful() {
+        when(productRepository.streamAllOrderedById()).thenReturn(productDAOList.stream());
+        when(productMapper.daoToProduct(productDAO)).thenReturn(product);
+        List<Product> exported = new ArrayList<>();
+        productService.exportProducts(exported::add);
+        assertEquals(2, exported.size());
+        verify(entityManager, times(2)).detach(productDAO);
+    }
+
     @Test
     void findProductById_Successful() {
         when(productRepository.findById(1L)).thenReturn(Optional.of(productDAO));
@@ -82,6 +159,16 @@ public class ProductServiceImplTest {
         assertEquals(product, actualResult.get());
         verify(productRepository, times(1)).findById(1L);
         verify(productMapper, times(1)).daoToProduct(productDAO);
+        verify(productCache, times(1)).putProduct(eq(product), anyLong());
+    }
+
+    @Test
+    void testFindProductById_Cached_Successful() {
+        when(productCache.getProduct(1L)).thenReturn(product);
+        Optional<Product> actualResult = productService.findProductById(1L);
+        assertTrue(actualResult.isPresent());
+        assertEquals(product, actualResult.get());
+        verify(productRepository, never()).findById(anyLong());
     }
 
     @Test
@@ -92,6 +179,76 @@ public class ProductServiceImplTest {
         verify(productRepository, times(1)).findById(anyLong());
     }
 
+    @Test
+    void testSearchProducts_Text_FullPageHasNextPage() {
+        when(productRepository.searchFullText("+small +radi*", PageRequest.of(1, 2))).thenReturn(productDAOList);
+        when(productMapper.daoToProduct(any())).thenReturn(product);
+        SearchPage<Product> result = productService.searchProducts("small radi", ProductSearchMode.TEXT, 1, 2);
+        assertEquals(2, result.getItems().size());
+        assertEquals(2, result.getNextPage());
+    }
+
+    @Test
+    void testSearchProducts_Prefix_LastPage() {
+        when(productRepository.findByNameStartingWithOrderByNameAscIdAsc("Rad", PageRequest.of(0, 10)))
+                .thenReturn(Collections.singletonList(productDAO));
+        when(productMapper.daoToProduct(productDAO)).thenReturn(product);
+        SearchPage<Product> result = productService.searchProducts(" Rad ", ProductSearchMode.PREFIX, 0, 10);
+        assertEquals(Collections.singletonList(product), result.getItems());
+        assertNull(result.getNextPage());
+        verify(productRepository, never()).searchFullText(any(), any());
+    }
+
+    @Test
+    void testSearchProducts_Text_OnlyOperators_NoQuery() {
+        SearchPage<Product> result = productService.searchProducts("+-<>()~*\"@", ProductSearchMode.TEXT, 0, 10);
+        assertTrue(result.getItems().isEmpty());
+        verify(productRepository, never()).searchFullText(any(), any());
+    }
+
+    @Test
+    void testFilterProducts_ExtraRowGivesNextCursor() {
+        ProductFilter filter = new ProductFilter(1L, 10.0, null, true, ProductSort.NAME);
+        when(productRepository.findFiltered(filter, null, 2)).thenReturn(productDAOList);
+        when(productMapper.daoToProduct(any())).thenReturn(product);
+        KeysetPage<Product> result = productService.filterProducts(filter, null, 1);
+        assertEquals(Collections.singletonList(product), result.getItems());
+        ProductCursor nextCursor = ProductCursor.decode(result.getNextCursor(), ProductSort.NAME).orElseThrow();
+        assertEquals(product.getName(), nextCursor.getSortValue());
+        assertEquals(product.getId(), nextCursor.getId());
+    }
+
+    @Test
+    void testFilterProducts_LastPage() {
+        ProductFilter filter = new ProductFilter(null, null, null, false, ProductSort.PRICE);
+        ProductCursor after = new ProductCursor(ProductSort.PRICE, "9.99", 4L);
+        when(productRepository.findFiltered(filter, after, 3)).thenReturn(productDAOList);
+        when(productMapper.daoToProduct(any())).thenReturn(product);
+        KeysetPage<Product> result = productService.filterProducts(filter, after, 2);
+        assertEquals(2, result.getItems().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void testProductCursor_RoundTripAndInvalid() {
+        ProductCursor cursor = new ProductCursor(ProductSort.NAME, "a|b", 7L);
+        assertEquals(cursor, ProductCursor.decode(cursor.encode(), ProductSort.NAME).orElseThrow());
+        assertFalse(ProductCursor.decode(cursor.encode(), ProductSort.PRICE).isPresent());
+        ProductCursor numericNameCursor = new ProductCursor(ProductSort.NAME, "42", 7L);
+        assertFalse(ProductCursor.decode(numericNameCursor.encode(), ProductSort.PRICE).isPresent());
+        ProductCursor priceCursor = new ProductCursor(ProductSort.PRICE, "9.99", 4L);
+        assertEquals(priceCursor, ProductCursor.decode(priceCursor.encode(), ProductSort.PRICE).orElseThrow());
+        assertFalse(ProductCursor.decode(priceCursor.encode(), ProductSort.NAME).isPresent());
+        assertFalse(ProductCursor.decode("not base64!", ProductSort.NAME).isPresent());
+    }
+
+    @Test
+    void testToFullTextQuery_OperatorsDroppedAndStopwordsSkipped() {
+        assertEquals("+radio +cotton_towel +100*", ProductServiceImpl.toFullTextQuery("The radio, cotton_towel -100%"));
+        assertEquals("+lamp with*", ProductServiceImpl.toFullTextQuery("a Lamp with"));
+        assertEquals("", ProductServiceImpl.toFullTextQuery("*\"()"));
+    }
+
     @Test
     void saveProduct_Successful() {
         when(productMapper.productToDAO(product)).thenReturn(productDAO);
@@ -102,10 +259,42 @@ public class ProductServiceImplTest {
         verify(productMapper).productToDAO(product);
         verify(productRepository, times(1)).save(productDAO);
         verify(productMapper).daoToProduct(productDAO);
+        verify(productCache, times(1)).invalidate(product.getId());
+        verify(productSnapshot, times(1)).productsSaved(Collections.singletonList(productDAO));
+        verify(catalogVersions, times(1)).productChanged(product.getId());
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("name", "Radio new");
+        fields.put("description", "small new radio");
+        fields.put("price", 4.99);
+        fields.put("quantity", 4);
+        fields.put("categoryId", 1L);
+        verify(eventPublisher, times(1)).publishEvent(CatalogChangedEvent.created(CatalogEntity.PRODUCT, 1L, fields));
+    }
+
+    @Test
+    void testSaveProductBatch_InvalidEntriesReported() {
+        Product missingCategory = new Product(null, "Lamp", "desk lamp", 12.5, 3, 99L);
+        Product invalid = new Product(null, "", "no name", null, 1, 1L);
+        List<BatchItem<Product>> batch = Arrays.asList(
+                new BatchItem<>(0, product), new BatchItem<>(1, missingCategory), new BatchItem<>(2, invalid));
+        when(categoryRepository.findExistingIds(any())).thenReturn(Collections.singletonList(1L));
+        when(productMapper.productToDAO(product)).thenReturn(productDAO);
+        BatchSaveResult result = productService.saveProductBatch(batch);
+        assertEquals(3, result.getReceived());
+        assertEquals(1, result.getSaved());
+        assertEquals(2, result.getErrors().size());
+        assertEquals(1, result.getErrors().get(0).getIndex());
+        assertEquals(Collections.singletonList("Category not found with ID: 99"), result.getErrors().get(0).getMessages());
+        assertEquals(2, result.getErrors().get(1).getIndex());
+        assertEquals(2, result.getErrors().get(1).getMessages().size());
+        verify(categoryRepository, times(1)).findExistingIds(any());
+        verify(productRepository, times(1)).saveAll(Collections.singletonList(productDAO));
+        verify(catalogVersions, times(1)).productsChanged(Collections.singletonList(productDAO.getId()));
     }
 
     @Test
     void testEditProductById_Successful() {
+        productDAO.setVersion(3L);
         when(productRepository.findById(1L)).thenReturn(Optional.of(oldProductDAO));
         when(productRepository.save(oldProductDAO)).thenReturn(productDAO);
         when(productMapper.daoToProduct(productDAO)).thenReturn(product);
@@ -115,6 +304,15 @@ public class ProductServiceImplTest {
         verify(productRepository, times(1)).findById(1L);
         verify(productRepository, times(1)).save(oldProductDAO);
         verify(productMapper, times(1)).daoToProduct(productDAO);
+        verify(productCache, times(1)).invalidate(1L);
+        verify(catalogVersions, times(1)).productChanged(1L);
+        Map<String, Object> changedFields = new LinkedHashMap<>();
+        changedFields.put("name", "Radio new");
+        changedFields.put("description", "small new radio");
+        changedFields.put("price", 4.99);
+        changedFields.put("quantity", 4);
+        verify(eventPublisher, times(1)).publishEvent(CatalogChangedEvent.updated(CatalogEntity.PRODUCT, 1L, 3L,
+                changedFields));
     }
 
     @Test
@@ -127,10 +325,97 @@ public class ProductServiceImplTest {
         verify(productMapper, never()).daoToProduct(any());
     }
 
+    @Test
+    void testPatchProductById_Successful() {
+        ProductPatch patch = new ProductPatch(null, null, 5.49, null, null);
+        when(productRepository.patch(1L, patch)).thenReturn(1);
+        when(productRepository.findVersionById(1L)).thenReturn(Optional.of(4L));
+        assertTrue(productService.patchProduct(1L, patch));
+        verify(productRepository, never()).findById(anyLong());
+        verify(productCache, times(1)).invalidateAfterCommit(Collections.singleton(1L));
+        verify(productSnapshot, times(1)).productChanged(1L);
+        verify(catalogVersions, times(1)).productChanged(1L);
+        verify(eventPublisher, times(1)).publishEvent(CatalogChangedEvent.updated(CatalogEntity.PRODUCT, 1L, 4L,
+                Collections.singletonMap("price", 5.49)));
+    }
+
+    @Test
+    void testPatchProductById_NonExistingId_Unsuccessful() {
+        ProductPatch patch = new ProductPatch(null, null, null, 7, null);
+        when(productRepository.patch(99L, patch)).thenReturn(0);
+        assertFalse(productService.patchProduct(99L, patch));
+        verify(productCache, never()).invalidateAfterCommit(any());
+        verify(catalogVersions, never()).productChanged(anyLong());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
     @Test
     void testDeleteProductById_Successful() {
         productService.deleteProductById(1L);
         verify(productRepository, times(1)).deleteById(1L);
+        verify(productCache, times(1)).invalidate(1L);
+        verify(productSnapshot, times(1)).productChanged(1L);
+        verify(catalogVersions, times(1)).productChanged(1L);
+        verify(eventPublisher, times(1)).publishEvent(CatalogChangedEvent.deleted(CatalogEntity.PRODUCT, 1L));
+    }
+
+    @Test
+    void testReserveStock_Successful() {
+        when(productRepository.reserveStock(1L, 2)).thenReturn(1);
+        assertTrue(productService.reserveStock(1L, 2));
+        verify(productCache, times(1)).invalidate(1L);
+        verify(catalogVersions, times(1)).productChanged(1L);
+    }
+
+    @Test
+    void testReserveStock_NotEnoughStock_Unsuccessful() {
+        when(productRepository.reserveStock(1L, 200)).thenReturn(0);
+        assertFalse(productService.reserveStock(1L, 200));
+        verify(productCache, never()).invalidate(anyLong());
+        verify(catalogVersions, never()).productChanged(anyLong());
+    }
+
+    @Test
+    void testReserveCart_QuantitiesMergedAndReservedInIdOrder() {
+        when(productRepository.reserveStock(anyLong(), anyInt())).thenReturn(1);
+        productService.reserveCart(Arrays.asList(
+                new StockReservation(3L, 1), new StockReservation(1L, 2), new StockReservation(3L, 4)));
+        InOrder inOrder = inOrder(productRepository);
+        inOrder.verify(productRepository).reserveStock(1L, 2);
+        inOrder.verify(productRepository).reserveStock(3L, 5);
+        inOrder.verifyNoMoreInteractions();
+        verify(productCache, times(1)).invalidateAfterCommit(new HashSet<>(Arrays.asList(1L, 3L)));
+        verify(catalogVersions, times(1)).productsChanged(new HashSet<>(Arrays.asList(1L, 3L)));
+    }
+
+    @Test
+    void testReserveCart_NotEnoughStock_ThrowsException() {
+        when(productRepository.reserveStock(1L, 2)).thenReturn(1);
+        when(productRepository.reserveStock(2L, 50)).thenReturn(0);
+        List<StockReservation> reservations = Arrays.asList(
+                new StockReservation(1L, 2), new StockReservation(2L, 50), new StockReservation(3L, 1));
+        InsufficientStockException exception = assertThrows(InsufficientStockException.class,
+                () -> productService.reserveCart(reservations));
+        assertEquals(2L, exception.getProductId());
+        verify(productRepository, never()).reserveStock(eq(3L), anyInt());
+        verify(productCache, never()).invalidateAfterCommit(any());
+        verify(catalogVersions, never()).productsChanged(any());
+    }
+
+    @Test
+    void testReleaseStock_Successful() {
+        when(productRepository.releaseStock(1L, 2)).thenReturn(1);
+        assertTrue(productService.releaseStock(1L, 2));
+        verify(productCache, times(1)).invalidate(1L);
+        verify(catalogVersions, times(1)).productChanged(1L);
+    }
+
+    @Test
+    void testReleaseStock_NonExistingId_Unsuccessful() {
+        when(productRepository.releaseStock(99L, 2)).thenReturn(0);
+        assertFalse(productService.releaseStock(99L, 2));
+        verify(productCache, never()).invalidate(anyLong());
+        verify(catalogVersions, never()).productChanged(anyLong());
     }
 
     @Test
@@ -152,12 +437,72 @@ public class ProductServiceImplTest {
     @Test
     void testGetProductInfo_Successful() {
         List<Long> productIds = Arrays.asList(1L, 2L, 3L);
-        when(productRepository.findById(1L)).thenReturn(Optional.of(productDAO));
-        when(productMapper.daoToProduct(productDAO)).thenReturn(product);
+        when(productRepository.findPricesByIdIn(productIds)).thenReturn(Collections.singletonList(createPriceView(1L, 4.99)));
         Map<Long, Double> expectedResult = new HashMap<>();
         expectedResult.put(1L, 4.99);
         Map<Long, Double> actualResult = productService.getProductInfo(productIds);
         assertEquals(expectedResult, actualResult);
+        verify(productRepository, times(1)).findPricesByIdIn(productIds);
+        verify(productRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void testGetProductInfo_LargeList_QueriedInChunks() {
+        List<Long> productIds = new ArrayList<>();
+        for (long id = 1; id <= ProductServiceImpl.PRICE_LOOKUP_CHUNK_SIZE + 1; id++) {
+            productIds.add(id);
+        }
+        productIds.add(1L);
+        when(productRepository.findPricesByIdIn(anyList())).thenReturn(Collections.singletonList(createPriceView(1L, 4.99)));
+        Map<Long, Double> actualResult = productService.getProductInfo(productIds);
+        assertEquals(1, actualResult.size());
+        verify(productRepository, times(2)).findPricesByIdIn(anyList());
+    }
+
+    @Test
+    void testGetProductInfo_CachedPrices_OnlyMissingIdsQueried() {
+        List<Long> productIds = Arrays.asList(1L, 2L);
+        when(productCache.getPrice(1L)).thenReturn(OptionalDouble.of(4.99));
+        when(productRepository.findPricesByIdIn(Collections.singletonList(2L)))
+                .thenReturn(Collections.singletonList(createPriceView(2L, 9.99)));
+        Map<Long, Double> actualResult = productService.getProductInfo(productIds);
+        assertEquals(4.99, actualResult.get(1L));
+        assertEquals(9.99, actualResult.get(2L));
+        verify(productRepository, times(1)).findPricesByIdIn(Collections.singletonList(2L));
+        verify(productCache, times(1)).putPrices(eq(Collections.singletonMap(2L, 9.99)), anyLong());
+    }
+
+    @Test
+    void testGetProductInfo_SnapshotPrices_OnlyMissingIdsQueried() {
+        List<Long> productIds = Arrays.asList(1L, 2L);
+        when(productSnapshot.findPrice(1L)).thenReturn(OptionalDouble.of(4.99));
+        when(productRepository.findPricesByIdIn(Collections.singletonList(2L)))
+                .thenReturn(Collections.singletonList(createPriceView(2L, 9.99)));
+        Map<Long, Double> actualResult = productService.getProductInfo(productIds);
+        assertEquals(4.99, actualResult.get(1L));
+        assertEquals(9.99, actualResult.get(2L));
+        verify(productCache, times(1)).putPrices(eq(Collections.singletonMap(2L, 9.99)), anyLong());
+    }
+
+    @Test
+    void testIsProductPresent_DeletedSinceSnapshot_NotPresent() {
+        lenient().when(productSnapshot.contains(1L)).thenReturn(true);
+        when(productRepository.existsById(1L)).thenReturn(false);
+        assertFalse(productService.isProductPresent(1L));
+    }
+
+    private ProductPriceView createPriceView(Long id, Double price) {
+        return new ProductPriceView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Double getPrice() {
+                return price;
+            }
+        };
     }
 
     private ProductDAO createProductDAO() {
@@ -0,0 +1,145 @@
+package com.productsService.business.service.impl;
+
+import com.productsService.business.cache.ProductCache;
+import com.productsService.business.mappers.ProductMapper;
+import com.productsService.business.repository.ReactiveProductRepository;
+import com.productsService.business.repository.model.ProductDAO;
+import com.productsService.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactiveProductServiceImplTest {
+
+    @Mock
+    private ReactiveProductRepository reactiveProductRepository;
+    @Mock
+    private ProductMapper productMapper;
+    @Mock
+    private ProductCache productCache;
+    @InjectMocks
+    private ReactiveProductServiceImpl reactiveProductService;
+
+    private ProductDAO productDAO;
+    private Product product;
+
+    @BeforeEach
+    public void init() {
+        productDAO = new ProductDAO(1L, "Radio new", "small new radio", 4.99, 4, 1L);
+        product = new Product(1L, "Radio new", "small new radio", 4.99, 4, 1L);
+    }
+
+    @Test
+    void testFindProductById_Successful() {
+        when(productCache.stamp()).thenReturn(3L);
+        when(reactiveProductRepository.findById(1L)).thenReturn(Mono.just(productDAO));
+        when(productMapper.daoToProduct(productDAO)).thenReturn(product);
+        StepVerifier.create(reactiveProductService.findProductById(1L))
+                .expectNext(product)
+                .verifyComplete();
+        verify(productCache, times(1)).putProduct(product, 3L);
+    }
+
+    @Test
+    void testFindProductById_Cached_Successful() {
+        when(productCache.getProduct(1L)).thenReturn(product);
+        StepVerifier.create(reactiveProductService.findProductById(1L))
+                .expectNext(product)
+                .verifyComplete();
+        verify(reactiveProductRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void testFindProductById_NonExistingId_Empty() {
+        when(reactiveProductRepository.findById(99L)).thenReturn(Mono.empty());
+        StepVerifier.create(reactiveProductService.findProductById(99L))
+                .verifyComplete();
+        verify(productCache, never()).putProduct(any(), anyLong());
+    }
+
+    @Test
+    void testStreamProducts_ReadsNextPageAfterFullPage() {
+        List<ProductDAO> firstPage = new ArrayList<>();
+        for (long id = 1; id <= ReactiveProductServiceImpl.STREAM_PAGE_SIZE; id++) {
+            firstPage.add(new ProductDAO(id, "name", "description", 1.0, 1, 1L));
+        }
+        long lastId = ReactiveProductServiceImpl.STREAM_PAGE_SIZE;
+        when(reactiveProductRepository.findPage(isNull(), eq(ReactiveProductServiceImpl.STREAM_PAGE_SIZE)))
+                .thenReturn(Flux.fromIterable(firstPage));
+        when(reactiveProductRepository.findPage(lastId, ReactiveProductServiceImpl.STREAM_PAGE_SIZE))
+                .thenReturn(Flux.just(productDAO));
+        when(productMapper.daoToProduct(any())).thenReturn(product);
+        StepVerifier.create(reactiveProductService.streamProducts())
+                .expectNextCount(ReactiveProductServiceImpl.STREAM_PAGE_SIZE + 1)
+                .verifyComplete();
+        verify(reactiveProductRepository, times(2)).findPage(any(), anyInt());
+    }
+
+    @Test
+    void testStreamProducts_NextPageNotReadBeforeRequested() {
+        List<ProductDAO> firstPage = new ArrayList<>();
+        for (long id = 1; id <= ReactiveProductServiceImpl.STREAM_PAGE_SIZE; id++) {
+            firstPage.add(new ProductDAO(id, "name", "description", 1.0, 1, 1L));
+        }
+        when(reactiveProductRepository.findPage(isNull(), eq(ReactiveProductServiceImpl.STREAM_PAGE_SIZE)))
+                .thenReturn(Flux.fromIterable(firstPage));
+        when(productMapper.daoToProduct(any())).thenReturn(product);
+        StepVerifier.create(reactiveProductService.streamProducts(), 10)
+                .expectNextCount(10)
+                .thenCancel()
+                .verify();
+        verify(reactiveProductRepository, times(1)).findPage(any(), anyInt());
+    }
+
+    @Test
+    void testGetProductInfo_CachedPrices_OnlyMissingIdsQueried() {
+        Map<Long, Double> cachedPrices = new HashMap<>();
+        cachedPrices.put(1L, 4.99);
+        when(productCache.getPrices(Arrays.asList(1L, 2L))).thenReturn(cachedPrices);
+        when(productCache.stamp()).thenReturn(5L);
+        when(reactiveProductRepository.findPricesByIdIn(Collections.singletonList(2L)))
+                .thenReturn(Flux.just(new AbstractMap.SimpleImmutableEntry<>(2L, 7.5)));
+        Map<Long, Double> expected = new HashMap<>(cachedPrices);
+        expected.put(2L, 7.5);
+        StepVerifier.create(reactiveProductService.getProductInfo(Arrays.asList(1L, 2L, 1L)))
+                .expectNext(expected)
+                .verifyComplete();
+        verify(productCache, times(1)).putPrices(Collections.singletonMap(2L, 7.5), 5L);
+    }
+
+    @Test
+    void testGetProductInfo_AllCached_NoQuery() {
+        when(productCache.getPrices(Collections.singletonList(1L))).thenReturn(Collections.singletonMap(1L, 4.99));
+        StepVerifier.create(reactiveProductService.getProductInfo(Collections.singletonList(1L)))
+                .expectNext(Collections.singletonMap(1L, 4.99))
+                .verifyComplete();
+        verify(reactiveProductRepository, never()).findPricesByIdIn(any());
+        verify(productCache, never()).putPrices(anyMap(), anyLong());
+    }
+}
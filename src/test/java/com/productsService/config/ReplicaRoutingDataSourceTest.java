@@ -0,0 +1,140 @@
+package com.productsService.config;
+
+import com.productsService.business.cache.CatalogVersions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ReplicaRoutingDataSourceTest {
+
+    private final List<EmbeddedDatabase> databases = new ArrayList<>();
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replica;
+
+    @BeforeEach
+    public void init() {
+        primary = database("primary");
+        replica = database("replica");
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        RequestContextHolder.resetRequestAttributes();
+        databases.forEach(EmbeddedDatabase::shutdown);
+    }
+
+    @Test
+    void testReadOnlyTransaction_RoutedToReplica() {
+        DataSource dataSource = routingDataSource(Arrays.asList(replica), true);
+        assertEquals("replica", readServer(dataSource, true));
+    }
+
+    @Test
+    void testReadWriteTransaction_RoutedToPrimary() {
+        DataSource dataSource = routingDataSource(Arrays.asList(replica), true);
+        assertEquals("primary", readServer(dataSource, false));
+    }
+
+    @Test
+    void testWithoutTransaction_RoutedToPrimary() {
+        DataSource dataSource = routingDataSource(Arrays.asList(replica), true);
+        assertEquals("primary", new JdbcTemplate(dataSource).queryForObject("SELECT name FROM server", String.class));
+    }
+
+    @Test
+    void testReadOnlyTransactions_SpreadOverReplicas() {
+        EmbeddedDatabase secondReplica = database("second replica");
+        DataSource dataSource = routingDataSource(Arrays.asList(replica, secondReplica), true);
+        assertEquals("replica", readServer(dataSource, true));
+        assertEquals("second replica", readServer(dataSource, true));
+        assertEquals("replica", readServer(dataSource, true));
+    }
+
+    @Test
+    void testReadYourWrites_RequestPinnedToPrimaryAfterWrite() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        DataSource dataSource = routingDataSource(Arrays.asList(replica), true);
+        assertEquals("replica", readServer(dataSource, true));
+        assertEquals("primary", readServer(dataSource, false));
+        assertEquals("primary", readServer(dataSource, true));
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertEquals("replica", readServer(dataSource, true));
+    }
+
+    @Test
+    void testReadYourWritesDisabled_ReadsStayOnReplica() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        DataSource dataSource = routingDataSource(Arrays.asList(replica), false);
+        assertEquals("primary", readServer(dataSource, false));
+        assertEquals("replica", readServer(dataSource, true));
+    }
+
+    @Test
+    void testETagWithoutRecentChange_ReadsStayOnReplica() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        DataSource dataSource = routingDataSource(Arrays.asList(replica), false);
+        CatalogVersions catalogVersions = new CatalogVersions(Duration.ofMinutes(1), Duration.ofMinutes(10));
+        catalogVersions.productCollectionETag();
+        catalogVersions.productETag(1L);
+        catalogVersions.categoryCollectionETag();
+        assertEquals("replica", readServer(dataSource, true));
+    }
+
+    @Test
+    void testETagChangedWithinReplicaLag_RequestPinnedToPrimary() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        DataSource dataSource = routingDataSource(Arrays.asList(replica), false);
+        CatalogVersions catalogVersions = new CatalogVersions(Duration.ofMinutes(1), Duration.ofMinutes(10));
+        catalogVersions.productChanged(1L);
+        catalogVersions.categoryCollectionETag();
+        assertEquals("replica", readServer(dataSource, true));
+        catalogVersions.productETag(1L);
+        assertEquals("primary", readServer(dataSource, true));
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertEquals("replica", readServer(dataSource, true));
+        catalogVersions.productCollectionETag();
+        assertEquals("primary", readServer(dataSource, true));
+    }
+
+    private DataSource routingDataSource(List<? extends DataSource> replicas, boolean readYourWrites) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replicas, readYourWrites));
+    }
+
+    private String readServer(DataSource dataSource, boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("SELECT name FROM server", String.class));
+    }
+
+    private EmbeddedDatabase database(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        new JdbcTemplate(database).execute("CREATE TABLE server (name VARCHAR(50))");
+        new JdbcTemplate(database).update("INSERT INTO server (name) VALUES (?)", name);
+        databases.add(database);
+        return database;
+    }
+}
@@ -0,0 +1,85 @@
+package com.productsService.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class SamplingTurboFilterTest {
+
+    private LoggerContext loggerContext;
+    private ListAppender<ILoggingEvent> appender;
+    private SamplingTurboFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        loggerContext = new LoggerContext();
+        filter = new SamplingTurboFilter();
+        filter.setContext(loggerContext);
+        filter.setLoggers("com.productsService.web.controller, com.productsService.business.service.impl");
+        filter.setRate(3);
+        filter.start();
+        loggerContext.addTurboFilter(filter);
+        appender = new ListAppender<>();
+        appender.setContext(loggerContext);
+        appender.start();
+        Logger root = loggerContext.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(appender);
+    }
+
+    @Test
+    void testInfoMessages_OneOfRateWritten() {
+        Logger logger = loggerContext.getLogger("com.productsService.web.controller.ProductController");
+        for (int i = 0; i < 9; i++) {
+            logger.info("message {}", i);
+        }
+        assertEquals(3, appender.list.size());
+        assertEquals("message 0", appender.list.get(0).getFormattedMessage());
+        assertEquals("message 3", appender.list.get(1).getFormattedMessage());
+        assertEquals("message 6", appender.list.get(2).getFormattedMessage());
+    }
+
+    @Test
+    void testWarningsAndOtherLoggers_NotSampled() {
+        Logger sampled = loggerContext.getLogger("com.productsService.business.service.impl.ProductServiceImpl");
+        Logger other = loggerContext.getLogger("com.productsService.business.cache.ProductCache");
+        for (int i = 0; i < 3; i++) {
+            sampled.warn("warning {}", i);
+            sampled.error("error {}", i);
+            other.info("info {}", i);
+        }
+        assertEquals(9, appender.list.size());
+    }
+
+    @Test
+    void testDisabledLevel_NotCounted() {
+        Logger logger = loggerContext.getLogger("com.productsService.web.controller.ProductController");
+        logger.info("message 0");
+        for (int i = 0; i < 5; i++) {
+            logger.debug("debug {}", i);
+            logger.trace("trace {}", i);
+        }
+        logger.info("message 1");
+        logger.info("message 2");
+        logger.info("message 3");
+        assertEquals(2, appender.list.size());
+        assertEquals("message 0", appender.list.get(0).getFormattedMessage());
+        assertEquals("message 3", appender.list.get(1).getFormattedMessage());
+    }
+
+    @Test
+    void testInvalidRate_NotStarted() {
+        SamplingTurboFilter invalidFilter = new SamplingTurboFilter();
+        invalidFilter.setContext(loggerContext);
+        invalidFilter.setRate(0);
+        invalidFilter.start();
+        assertFalse(invalidFilter.isStarted());
+    }
+}
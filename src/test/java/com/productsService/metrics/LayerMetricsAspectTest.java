@@ -0,0 +1,116 @@
+package com.productsService.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.productsService.business.service.CategoryService;
+import com.productsService.model.BatchSaveResult;
+import com.productsService.model.Category;
+import com.productsService.model.CategorySummary;
+import com.productsService.model.CursorPage;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class LayerMetricsAspectTest {
+    @MockBean
+    private CategoryService categoryService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testResultSize() {
+        assertEquals(3, LayerMetricsAspect.resultSize(Arrays.asList(1, 2, 3)));
+        assertEquals(1, LayerMetricsAspect.resultSize(Collections.singletonMap("a", 1)));
+        assertEquals(2, LayerMetricsAspect.resultSize(ResponseEntity.ok(Arrays.asList(1, 2))));
+        assertEquals(1, LayerMetricsAspect.resultSize(Optional.of("a")));
+        assertEquals(0, LayerMetricsAspect.resultSize(Optional.empty()));
+        assertEquals(2, LayerMetricsAspect.resultSize(new CursorPage<>(Arrays.asList(1, 2), null)));
+        assertEquals(-1, LayerMetricsAspect.resultSize("a"));
+        assertEquals(-1, LayerMetricsAspect.resultSize(null));
+        assertEquals(-1, LayerMetricsAspect.resultSize(ResponseEntity.noContent().build()));
+        BatchSaveResult batchSaveResult = new BatchSaveResult();
+        batchSaveResult.setReceived(5);
+        assertEquals(5, LayerMetricsAspect.resultSize(batchSaveResult));
+    }
+
+    @Test
+    void testControllerCall_TimedAndResultSizeRecorded() throws Exception {
+        List<CategorySummary> summaries = Arrays.asList(
+                new CategorySummary(1L, "Category1", 2L, 10L, 1.0, 10.0),
+                new CategorySummary(2L, "Category2", 0L, 0L, null, null));
+        when(categoryService.getCategorySummaries()).thenReturn(summaries);
+        long calls = controllerTimer("getCategorySummaries").map(Timer::count).orElse(0L);
+        long results = controllerResultSize("getCategorySummaries").map(DistributionSummary::count).orElse(0L);
+
+        mockMvc.perform(get("/api/v1/category/summaries"))
+                .andExpect(status().isOk());
+
+        assertEquals(calls + 1, controllerTimer("getCategorySummaries").map(Timer::count).orElse(0L));
+        DistributionSummary resultSize = controllerResultSize("getCategorySummaries").orElse(null);
+        assertNotNull(resultSize);
+        assertEquals(results + 1, resultSize.count());
+        assertEquals(2.0, resultSize.max());
+    }
+
+    @Test
+    void testPayloadSizes_RecordedInBytes() throws Exception {
+        Category category = new Category(1L, "Category1");
+        when(categoryService.isCategoryNameExisting(category.getName())).thenReturn(false);
+        when(categoryService.saveCategory(any())).thenReturn(category);
+        byte[] requestBody = objectMapper.writeValueAsBytes(category);
+
+        byte[] responseBody = mockMvc.perform(post("/api/v1/category/save")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        DistributionSummary requestSize = meterRegistry.find(PayloadSizeFilter.REQUEST_SIZE)
+                .tags("method", "POST", "uri", "/api/v1/category/save", "status", "201").summary();
+        DistributionSummary responseSize = meterRegistry.find(PayloadSizeFilter.RESPONSE_SIZE)
+                .tags("method", "POST", "uri", "/api/v1/category/save", "status", "201").summary();
+        assertNotNull(requestSize);
+        assertNotNull(responseSize);
+        assertEquals(requestBody.length, requestSize.max());
+        assertEquals(responseBody.length, responseSize.max());
+    }
+
+    private Optional<Timer> controllerTimer(String method) {
+        return Optional.ofNullable(meterRegistry.find(LayerMetricsAspect.CALLS)
+                .tags("layer", LayerMetricsAspect.CONTROLLER, "class", "CategoryController",
+                        "method", method, "exception", "none")
+                .timer());
+    }
+
+    private Optional<DistributionSummary> controllerResultSize(String method) {
+        return Optional.ofNullable(meterRegistry.find(LayerMetricsAspect.RESULT_SIZE)
+                .tags("layer", LayerMetricsAspect.CONTROLLER, "class", "CategoryController", "method", method)
+                .summary());
+    }
+}
@@ -0,0 +1,74 @@
+package com.productsService.model;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ProductPriceMapTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testPut_GrowsAndKeepsAllPrices() {
+        ProductPriceMap prices = new ProductPriceMap(2);
+        Map<Long, Double> expected = new HashMap<>();
+        for (long id = 1; id <= 1000; id++) {
+            prices.put(id * 31, id + 0.99);
+            expected.put(id * 31, id + 0.99);
+        }
+        prices.put(31L, 5.0);
+        expected.put(31L, 5.0);
+        assertEquals(1000, prices.size());
+        assertEquals(expected, prices);
+        assertEquals(5.0, prices.getPrice(31, -1));
+        assertEquals(-1, prices.getPrice(32, -1));
+        assertFalse(prices.contains(32));
+    }
+
+    @Test
+    void testZeroKey_KeptOutsideOfTable() {
+        ProductPriceMap prices = new ProductPriceMap();
+        assertNull(prices.get(0L));
+        prices.put(0L, 1.5);
+        prices.put(7L, 2.5);
+        prices.put(0L, 3.5);
+        assertEquals(2, prices.size());
+        assertTrue(prices.containsKey(0L));
+        assertEquals(3.5, prices.get(0L));
+        assertEquals(2, prices.entrySet().stream().count());
+    }
+
+    @Test
+    void testSerialize_SameJsonAsBoxedMap() throws Exception {
+        ProductPriceMap prices = new ProductPriceMap();
+        Map<Long, Double> boxedPrices = new LinkedHashMap<>();
+        prices.forEachPrice((id, price) -> boxedPrices.put(id, price));
+        assertEquals("{}", objectMapper.writeValueAsString(prices));
+        prices.put(3L, 4.99);
+        prices.put(12L, 10.0);
+        prices.forEachPrice((id, price) -> boxedPrices.put(id, price));
+        assertEquals(objectMapper.writeValueAsString(boxedPrices), objectMapper.writeValueAsString(prices));
+    }
+
+    @Test
+    void testSerialize_Cbor_ReadableAsBoxedMap() throws Exception {
+        ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+        ProductPriceMap prices = new ProductPriceMap();
+        prices.put(3L, 4.99);
+        prices.put(5_000_000_000L, 10.0);
+        Map<Long, Double> decodedPrices = cborMapper.readValue(cborMapper.writeValueAsBytes(prices),
+                new TypeReference<Map<Long, Double>>() {
+                });
+        assertEquals(prices, decodedPrices);
+    }
+}
@@ -0,0 +1,39 @@
+package com.productsService.web;
+
+import com.productsService.model.ProductPriceMap;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ProductPricePairsHttpMessageConverterTest {
+
+    private final ProductPricePairsHttpMessageConverter converter = new ProductPricePairsHttpMessageConverter();
+
+    @Test
+    void testWriteAndRead_RoundTrip() throws Exception {
+        ProductPriceMap prices = new ProductPriceMap();
+        prices.put(1L, 4.99);
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        converter.write(prices, ProductPricePairsHttpMessageConverter.MEDIA_TYPE, outputMessage);
+        assertEquals("[[1,4.99]]", outputMessage.getBodyAsString(StandardCharsets.UTF_8));
+        assertEquals(ProductPricePairsHttpMessageConverter.MEDIA_TYPE, outputMessage.getHeaders().getContentType());
+
+        ProductPriceMap readPrices = converter.read(ProductPriceMap.class,
+                new MockHttpInputMessage("[[1,4.99],[7,3]]".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(2, readPrices.size());
+        assertEquals(4.99, readPrices.getPrice(1, 0));
+        assertEquals(3.0, readPrices.getPrice(7, 0));
+    }
+
+    @Test
+    void testRead_Malformed_NotReadable() {
+        assertThrows(HttpMessageNotReadableException.class, () -> converter.read(ProductPriceMap.class,
+                new MockHttpInputMessage("{\"1\":4.99}".getBytes(StandardCharsets.UTF_8))));
+    }
+}
@@ -0,0 +1,100 @@
+package com.productsService.web.controller;
+
+import com.productsService.business.events.CatalogChangeLog;
+import com.productsService.business.events.CatalogChangedEvent;
+import com.productsService.model.CatalogEntity;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class CatalogChangeControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private CatalogChangeLog catalogChangeLog;
+
+    public static final String URL = "/api/v1/changes";
+
+    @Test
+    void testStreamChanges_MissedAndNewChangesSent() throws Exception {
+        eventPublisher.publishEvent(CatalogChangedEvent.updated(CatalogEntity.PRODUCT, 7L,
+                Collections.singletonMap("price", 5.49)));
+        long missedVersion = catalogChangeLog.getLatestVersion();
+        MockHttpServletResponse response = mockMvc.perform(get(URL)
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header("Last-Event-ID", catalogChangeLog.eventId(missedVersion - 1)))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        String missedEvent = awaitContent(response, "id:" + catalogChangeLog.eventId(missedVersion));
+        assertTrue(missedEvent.contains("event:change"));
+        assertTrue(missedEvent.contains("\"entity\":\"PRODUCT\""));
+        assertTrue(missedEvent.contains("\"type\":\"UPDATED\""));
+        assertTrue(missedEvent.contains("\"fields\":{\"price\":5.49}"));
+
+        eventPublisher.publishEvent(CatalogChangedEvent.deleted(CatalogEntity.CATEGORY, 3L));
+        String newEvent = awaitContent(response, "id:" + catalogChangeLog.eventId(missedVersion + 1));
+        assertTrue(newEvent.contains("\"entity\":\"CATEGORY\""));
+        assertTrue(newEvent.contains("\"type\":\"DELETED\""));
+    }
+
+    @Test
+    void testStreamChanges_UnknownLastEventId_ResetSent() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get(URL)
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header("Last-Event-ID", "not-a-version"))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        String content = awaitContent(response, "event:reset");
+        assertFalse(content.contains("event:change"));
+    }
+
+    @Test
+    void testStreamChanges_LastEventIdOfOtherInstance_ResetSent() throws Exception {
+        eventPublisher.publishEvent(CatalogChangedEvent.deleted(CatalogEntity.PRODUCT, 8L));
+        String otherInstanceEventId = "0-" + (catalogChangeLog.getLatestVersion() - 1);
+        MockHttpServletResponse response = mockMvc.perform(get(URL)
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header("Last-Event-ID", otherInstanceEventId))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        String content = awaitContent(response, "event:reset");
+        assertFalse(content.contains("event:change"));
+    }
+
+    @Test
+    void testStreamChanges_InvalidAfterEventId_BadRequest() throws Exception {
+        mockMvc.perform(get(URL).param("afterEventId", "abc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            String content = response.getContentAsString();
+            int start = content.indexOf(expected);
+            // An event is written in several parts and ends with a blank line
+            int end = start < 0 ? -1 : content.indexOf("\n\n", start);
+            if (end >= 0) {
+                return content.substring(start, end);
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Stream did not contain " + expected + ": " + response.getContentAsString());
+    }
+}
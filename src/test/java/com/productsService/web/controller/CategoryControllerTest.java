@@ -1,8 +1,15 @@
 package com.productsService.web.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.productsService.business.cache.CatalogVersions;
 import com.productsService.business.service.CategoryService;
+import com.productsService.model.BatchSaveResult;
 import com.productsService.model.Category;
+import com.productsService.model.CategoryDeletionJob;
+import com.productsService.model.CategoryPatch;
+import com.productsService.model.CategorySummary;
+import com.productsService.model.CursorPage;
 import com.productsService.model.Product;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,24 +17,30 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.ByteArrayInputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
@@ -44,6 +57,8 @@ public class CategoryControllerTest {
     private ObjectMapper objectMapper;
     @Autowired
     private MockMvc mockMvc;
+    @Autowired
+    private CatalogVersions catalogVersions;
 
     public static final String URL = "/api/v1/category";
     public static final String URL1 = URL + "/allCategories";
@@ -61,6 +76,8 @@ public class CategoryControllerTest {
         category = createCategory();
         categoryList = createCategoryList(category);
         updatedCategory = createUpdatedCategory();
+        // Every test stubs its own categories, which the cached collection responses must not outlive
+        catalogVersions.categoriesChanged();
     }
 
     @Test
@@ -74,6 +91,83 @@ public class CategoryControllerTest {
                 .andExpect(jsonPath("$[0].name").value(categoryList.get(0).getName()));
         verify(categoryService, times(1)).getAllCategories();
     }
+
+    @Test
+     void testGetAllCategories_MatchingETag_NotModified() throws Exception {
+        when(categoryService.getAllCategories()).thenReturn(categoryList);
+        String etag = mockMvc.perform(get(URL1))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get(URL1)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andExpect(content().string(""));
+        catalogVersions.categoriesChanged();
+        mockMvc.perform(get(URL1)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(categoryList.size())));
+        verify(categoryService, times(2)).getAllCategories();
+    }
+    @Test
+     void testGetAllCategories_Gzip_CompressedOnceAndCached() throws Exception {
+        List<Category> largeCategoryList = new ArrayList<>();
+        for (long id = 1; id <= 200; id++) {
+            largeCategoryList.add(new Category(id, "Category number " + id));
+        }
+        when(categoryService.getAllCategories()).thenReturn(largeCategoryList);
+        for (int i = 0; i < 2; i++) {
+            byte[] body = mockMvc.perform(get(URL1)
+                            .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                    .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING))
+                    .andReturn().getResponse().getContentAsByteArray();
+            try (GZIPInputStream json = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                List<Category> categories = objectMapper.readValue(json, new TypeReference<List<Category>>() {
+                });
+                assertEquals(largeCategoryList.size(), categories.size());
+                assertEquals("Category number 200", categories.get(199).getName());
+            }
+        }
+        mockMvc.perform(get(URL1))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(jsonPath("$", hasSize(largeCategoryList.size())));
+        verify(categoryService, times(1)).getAllCategories();
+    }
+    @Test
+     void testGetAllCategories_SmallBody_NotCompressed() throws Exception {
+        when(categoryService.getAllCategories()).thenReturn(categoryList);
+        mockMvc.perform(get(URL1)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(jsonPath("$", hasSize(categoryList.size())));
+    }
+    @Test
+     void testGetCategorySummaries_ETagFollowsProducts() throws Exception {
+        when(categoryService.getCategorySummaries()).thenReturn(Collections.singletonList(
+                new CategorySummary(1L, "Radios", 2, 7, 9.5, 20.0)));
+        String etag = mockMvc.perform(get(URL + "/summaries"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].productCount").value(2))
+                .andExpect(jsonPath("$[0].totalQuantity").value(7))
+                .andExpect(jsonPath("$[0].minPrice").value(9.5))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get(URL + "/summaries")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        catalogVersions.productChanged(5L);
+        mockMvc.perform(get(URL + "/summaries")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        verify(categoryService, times(2)).getCategorySummaries();
+    }
     @Test
      void testFindAllCategories_WhenListEmpty_Successful() throws Exception {
         when(categoryService.getAllCategories()).thenReturn(Collections.emptyList());
@@ -83,6 +177,18 @@ public class CategoryControllerTest {
                 .andExpect(jsonPath("$", hasSize(0)));
         verify(categoryService, times(1)).getAllCategories();
     }
+    @Test
+     void testGetCategoriesPage_Successful() throws Exception {
+        when(categoryService.getCategoriesPage(null, CursorPage.DEFAULT_LIMIT)).thenReturn(new CursorPage<>(categoryList, null));
+        mockMvc.perform(get(URL1)
+                        .param("limit", String.valueOf(CursorPage.DEFAULT_LIMIT)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.items", hasSize(categoryList.size())))
+                .andExpect(jsonPath("$.items[0].name").value(category.getName()))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        verify(categoryService, times(1)).getCategoriesPage(null, CursorPage.DEFAULT_LIMIT);
+    }
     @Test
      void testGetCategoryById_ExistingId_Successful() throws Exception {
         when(categoryService.findCategoryById(1L)).thenReturn(Optional.of(category));
@@ -140,6 +246,21 @@ public class CategoryControllerTest {
                 .andExpect(jsonPath("$.message").value("Validation failed"));
     }
 
+    @Test
+    void testSaveCategoryBatch_MalformedJson_PartiallySaved() throws Exception {
+        BatchSaveResult chunkResult = new BatchSaveResult(1);
+        chunkResult.setSaved(1);
+        when(categoryService.saveCategoryBatch(any())).thenReturn(chunkResult);
+        mockMvc.perform(post(URL + "/saveBatch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"name\": \"art\"}, {\"name\": "))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(1))
+                .andExpect(jsonPath("$.saved").value(1))
+                .andExpect(jsonPath("$.errors[0].index").value(1));
+        verify(categoryService, times(1)).saveCategoryBatch(any());
+    }
+
     @Test
     void testEditCategoryById_Successful() throws Exception {
         when(categoryService.isCategoryPresent(1L)).thenReturn(true);
@@ -194,9 +315,33 @@ public class CategoryControllerTest {
         verify(categoryService, times(0)).editCategory(anyLong(), any());
     }
 
+    @Test
+    void testPatchCategoryById_Successful() throws Exception {
+        when(categoryService.patchCategory(1L, new CategoryPatch("garden"))).thenReturn(true);
+        mockMvc.perform(patch(URL4 + "/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"garden\"}"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Category entry with ID 1 updated"));
+        verify(categoryService, times(1)).patchCategory(1L, new CategoryPatch("garden"));
+    }
+
+    @Test
+    void testPatchCategoryById_CategoryNotFound_Unsuccessful() throws Exception {
+        when(categoryService.patchCategory(99L, new CategoryPatch("garden"))).thenReturn(false);
+        mockMvc.perform(patch(URL4 + "/99")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"garden\"}"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string("Sorry, the category id 99 does not exist."));
+    }
+
     @Test
     void testDeleteCategory_CategoryExists_Successful() throws Exception {
+        CategoryDeletionJob job = new CategoryDeletionJob(1L);
+        job.complete();
         when(categoryService.isCategoryPresent(1L)).thenReturn(true);
+        when(categoryService.deleteCategoryById(1L)).thenReturn(job);
         mockMvc.perform(delete(URL5 + "/" + 1L))
                 .andExpect(status().isOk())
                 .andExpect(content().string("Category entry with ID " + 1L + " deleted"));
@@ -214,6 +359,78 @@ public class CategoryControllerTest {
         verify(categoryService, times(0)).deleteCategoryById(1L);
     }
 
+    @Test
+    void testDeleteCategory_Async_Accepted() throws Exception {
+        CategoryDeletionJob job = new CategoryDeletionJob(1L);
+        when(categoryService.isCategoryPresent(1L)).thenReturn(true);
+        when(categoryService.startCategoryDeletion(1L)).thenReturn(job);
+        mockMvc.perform(delete(URL5 + "/1")
+                        .param("async", "true"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", URL + "/deletionJobs/" + job.getId()))
+                .andExpect(jsonPath("$.id").value(job.getId()))
+                .andExpect(jsonPath("$.categoryId").value(1))
+                .andExpect(jsonPath("$.status").value("RUNNING"))
+                .andExpect(jsonPath("$.deletedProducts").value(0));
+        verify(categoryService, times(1)).startCategoryDeletion(1L);
+        verify(categoryService, times(0)).deleteCategoryById(1L);
+    }
+
+    @Test
+    void testDeleteCategory_AsyncAlreadyRunning_RunningJobReturned() throws Exception {
+        CategoryDeletionJob job = new CategoryDeletionJob(1L);
+        when(categoryService.findRunningCategoryDeletionJob(1L)).thenReturn(Optional.of(job));
+        mockMvc.perform(delete(URL5 + "/1")
+                        .param("async", "true"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", URL + "/deletionJobs/" + job.getId()))
+                .andExpect(jsonPath("$.id").value(job.getId()));
+        verify(categoryService, never()).isCategoryPresent(anyLong());
+        verify(categoryService, never()).startCategoryDeletion(anyLong());
+    }
+
+    @Test
+    void testDeleteCategory_JobRunning_RunningJobReturned() throws Exception {
+        CategoryDeletionJob job = new CategoryDeletionJob(1L);
+        when(categoryService.findRunningCategoryDeletionJob(1L)).thenReturn(Optional.of(job));
+        mockMvc.perform(delete(URL5 + "/1"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", URL + "/deletionJobs/" + job.getId()))
+                .andExpect(jsonPath("$.id").value(job.getId()));
+        verify(categoryService, never()).deleteCategoryById(anyLong());
+    }
+
+    @Test
+    void testDeleteCategory_JobStartedMeanwhile_RunningJobReturned() throws Exception {
+        CategoryDeletionJob job = new CategoryDeletionJob(1L);
+        when(categoryService.isCategoryPresent(1L)).thenReturn(true);
+        when(categoryService.deleteCategoryById(1L)).thenReturn(job);
+        mockMvc.perform(delete(URL5 + "/1"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", URL + "/deletionJobs/" + job.getId()))
+                .andExpect(jsonPath("$.status").value("RUNNING"));
+    }
+
+    @Test
+    void testGetCategoryDeletionJob_Successful() throws Exception {
+        CategoryDeletionJob job = new CategoryDeletionJob(1L);
+        job.addDeletedProducts(1500);
+        job.complete();
+        when(categoryService.findCategoryDeletionJob(job.getId())).thenReturn(Optional.of(job));
+        mockMvc.perform(get(URL + "/deletionJobs/" + job.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.deletedProducts").value(1500));
+    }
+
+    @Test
+    void testGetCategoryDeletionJob_NotFound_Unsuccessful() throws Exception {
+        when(categoryService.findCategoryDeletionJob("unknown")).thenReturn(Optional.empty());
+        mockMvc.perform(get(URL + "/deletionJobs/unknown"))
+                .andExpect(status().isNotFound())
+                .andExpect(header().string("Message", "Category deletion job not found with ID: unknown"));
+    }
+
     private Category createCategory() {
         return new Category(1L, "art");
     }
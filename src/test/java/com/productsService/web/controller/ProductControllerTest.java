@@ -1,36 +1,63 @@
 package com.productsService.web.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.productsService.business.exceptions.InsufficientStockException;
+import com.productsService.business.repository.model.ProductDAO;
+import com.productsService.business.cache.CatalogVersions;
 import com.productsService.business.service.CategoryService;
 import com.productsService.business.service.ProductService;
+import com.productsService.model.BatchSaveResult;
+import com.productsService.model.CursorPage;
+import com.productsService.model.KeysetPage;
 import com.productsService.model.Product;
+import com.productsService.model.ProductCursor;
+import com.productsService.model.ProductFilter;
+import com.productsService.model.ProductPatch;
+import com.productsService.model.ProductPriceMap;
+import com.productsService.model.ProductSearchMode;
+import com.productsService.model.ProductSort;
+import com.productsService.model.SearchPage;
+import com.productsService.model.StockReservation;
+import com.productsService.model.StockReservationRequest;
+import com.productsService.web.ProductPricePairsHttpMessageConverter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
@@ -49,6 +76,8 @@ public class ProductControllerTest {
     private ObjectMapper objectMapper;
     @Autowired
     private MockMvc mockMvc;
+    @Autowired
+    private CatalogVersions catalogVersions;
 
     public static final String URL = "/api/v1/products";
     public static final String URL1 = URL + "/allProducts";
@@ -77,6 +106,7 @@ public class ProductControllerTest {
         mockMvc.perform(get(URL1))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT))
                 .andExpect(jsonPath("$", hasSize(productList.size())))
                 .andExpect(jsonPath("$[0].id").value(productList.get(0).getId()))
                 .andExpect(jsonPath("$[0].name").value(productList.get(0).getName()))
@@ -87,6 +117,18 @@ public class ProductControllerTest {
         verify(productService, times(1)).getAllProducts();
     }
 
+    @Test
+    void testGetAllProducts_MatchingETag_NotModified() throws Exception {
+        when(productService.getAllProducts()).thenReturn(productList);
+        String etag = mockMvc.perform(get(URL1))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get(URL1)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        verify(productService, times(1)).getAllProducts();
+    }
+
     @Test
     void testFindAllProducts_WhenListEmpty_Successful() throws Exception {
         when(productService.getAllProducts()).thenReturn(Collections.emptyList());
@@ -97,6 +139,55 @@ public class ProductControllerTest {
         verify(productService, times(1)).getAllProducts();
     }
 
+    @Test
+    void testGetProductsPage_Successful() throws Exception {
+        when(productService.getProductsPage(1L, 2)).thenReturn(new CursorPage<>(productList, 3L));
+        mockMvc.perform(get(URL1)
+                        .param("afterId", "1")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.items", hasSize(productList.size())))
+                .andExpect(jsonPath("$.items[0].id").value(productList.get(0).getId()))
+                .andExpect(jsonPath("$.nextCursor").value(3));
+        verify(productService, times(1)).getProductsPage(1L, 2);
+        verify(productService, never()).getAllProducts();
+    }
+
+    @Test
+    void testGetProductsPage_LimitAboveMaximum_Clamped() throws Exception {
+        when(productService.getProductsPage(null, CursorPage.MAX_LIMIT)).thenReturn(new CursorPage<>(productList, null));
+        mockMvc.perform(get(URL1)
+                        .param("limit", String.valueOf(CursorPage.MAX_LIMIT + 1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        verify(productService, times(1)).getProductsPage(null, CursorPage.MAX_LIMIT);
+    }
+
+    @Test
+    void testGetProductsPage_InvalidLimit_Unsuccessful() throws Exception {
+        mockMvc.perform(get(URL1)
+                        .param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Page limit must be greater than 0"));
+        verify(productService, never()).getProductsPage(any(), anyInt());
+    }
+
+    @Test
+    void testExportProducts_Successful() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<Product> consumer = invocation.getArgument(0);
+            productList.forEach(consumer);
+            return null;
+        }).when(productService).exportProducts(any());
+        String expectedLine = objectMapper.writeValueAsString(product);
+        mockMvc.perform(get(URL + "/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(expectedLine + "\n" + expectedLine + "\n"));
+        verify(productService, times(1)).exportProducts(any());
+    }
+
     @Test
     void testGetProductById_ExistingId_Successful() throws Exception {
         when(productService.findProductById(1L)).thenReturn(Optional.of(product));
@@ -119,6 +210,105 @@ public class ProductControllerTest {
         verify(productService, times(1)).findProductById(99L);
     }
 
+    @Test
+    void testGetProductById_MatchingETag_NotModified() throws Exception {
+        when(productService.findProductById(1L)).thenReturn(Optional.of(product));
+        String etag = mockMvc.perform(get(URL2 + "/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get(URL2 + "/1")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andExpect(content().string(""));
+        verify(productService, times(1)).findProductById(1L);
+    }
+
+    @Test
+    void testGetProductById_ProductChanged_ETagNoLongerMatches() throws Exception {
+        when(productService.findProductById(1L)).thenReturn(Optional.of(product));
+        String etag = mockMvc.perform(get(URL2 + "/1"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        catalogVersions.productChanged(1L);
+        mockMvc.perform(get(URL2 + "/1")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(product.getId()));
+        verify(productService, times(2)).findProductById(1L);
+    }
+
+    @Test
+    void testSearchProducts_Successful() throws Exception {
+        when(productService.searchProducts("radio", ProductSearchMode.TEXT, 0, CursorPage.DEFAULT_LIMIT))
+                .thenReturn(new SearchPage<>(productList, null));
+        mockMvc.perform(get(URL + "/search")
+                        .param("query", "radio"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(productList.size())))
+                .andExpect(jsonPath("$.items[0].name").value(product.getName()))
+                .andExpect(jsonPath("$.nextPage").doesNotExist());
+        verify(productService, times(1)).searchProducts("radio", ProductSearchMode.TEXT, 0, CursorPage.DEFAULT_LIMIT);
+    }
+
+    @Test
+    void testSearchProducts_Prefix_LimitClamped() throws Exception {
+        when(productService.searchProducts("Rad", ProductSearchMode.PREFIX, 2, CursorPage.MAX_LIMIT))
+                .thenReturn(new SearchPage<>(productList, 3));
+        mockMvc.perform(get(URL + "/search")
+                        .param("query", "Rad")
+                        .param("mode", "PREFIX")
+                        .param("page", "2")
+                        .param("limit", String.valueOf(CursorPage.MAX_LIMIT + 1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextPage").value(3));
+    }
+
+    @Test
+    void testFilterProducts_Successful() throws Exception {
+        ProductFilter filter = new ProductFilter(1L, 5.0, 50.0, true, ProductSort.NAME);
+        ProductCursor after = new ProductCursor(ProductSort.NAME, "Radio", 3L);
+        when(productService.filterProducts(filter, after, 5)).thenReturn(new KeysetPage<>(productList, "next"));
+        mockMvc.perform(get(URL + "/filter")
+                        .param("categoryId", "1")
+                        .param("minPrice", "5")
+                        .param("maxPrice", "50")
+                        .param("inStock", "true")
+                        .param("sort", "NAME")
+                        .param("cursor", after.encode())
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(productList.size())))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+        verify(productService, times(1)).filterProducts(filter, after, 5);
+    }
+
+    @Test
+    void testFilterProducts_InvalidCursor_Unsuccessful() throws Exception {
+        mockMvc.perform(get(URL + "/filter")
+                        .param("cursor", new ProductCursor(ProductSort.NAME, "Radio", 3L).encode()))
+                .andExpect(status().isBadRequest());
+        verify(productService, never()).filterProducts(any(), any(), anyInt());
+    }
+
+    @Test
+    void testFilterProducts_InvalidPriceRange_Unsuccessful() throws Exception {
+        mockMvc.perform(get(URL + "/filter")
+                        .param("minPrice", "10")
+                        .param("maxPrice", "5"))
+                .andExpect(status().isBadRequest());
+        verify(productService, never()).filterProducts(any(), any(), anyInt());
+    }
+
+    @Test
+    void testSearchProducts_BlankQuery_Unsuccessful() throws Exception {
+        mockMvc.perform(get(URL + "/search")
+                        .param("query", " "))
+                .andExpect(status().isBadRequest());
+        verify(productService, never()).searchProducts(any(), any(), anyInt(), anyInt());
+    }
+
     @Test
     void testSaveProduct_Successful() throws Exception {
         when(categoryService.isCategoryPresent(savedProduct.getCategoryId())).thenReturn(true);
@@ -147,6 +337,17 @@ public class ProductControllerTest {
         verify(productService, never()).saveProduct(any());
     }
 
+    @Test
+    void testSaveProduct_CategoryDeletedConcurrently_Conflict() throws Exception {
+        when(categoryService.isCategoryPresent(savedProduct.getCategoryId())).thenReturn(true);
+        when(productService.saveProduct(any())).thenThrow(new DataIntegrityViolationException("foreign key constraint fails"));
+        mockMvc.perform(post(URL3)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(savedProduct)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(HttpStatus.CONFLICT.value()));
+    }
+
     @Test
     void testSaveProduct_ValidationFailure_Unsuccessful() throws Exception {
         Product productEmpty = new Product();
@@ -159,6 +360,36 @@ public class ProductControllerTest {
                 .andExpect(jsonPath("$.message").value("Validation failed"));
     }
 
+    @Test
+    void testSaveProductBatch_Successful() throws Exception {
+        BatchSaveResult chunkResult = new BatchSaveResult(2);
+        chunkResult.setSaved(2);
+        when(productService.saveProductBatch(any())).thenReturn(chunkResult);
+        String body = "[" + objectMapper.writeValueAsString(savedProduct)
+                + ", {\"name\": \"broken\", \"price\": \"abc\", \"quantity\": 1, \"categoryId\": 2}, "
+                + objectMapper.writeValueAsString(updatedProduct) + "]";
+        mockMvc.perform(post(URL + "/saveBatch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(3))
+                .andExpect(jsonPath("$.saved").value(2))
+                .andExpect(jsonPath("$.errors", hasSize(1)))
+                .andExpect(jsonPath("$.errors[0].index").value(1));
+        verify(productService, times(1)).saveProductBatch(argThat(chunk -> chunk.size() == 2
+                && chunk.get(0).getIndex() == 0 && chunk.get(1).getIndex() == 2
+                && chunk.get(1).getValue().equals(updatedProduct)));
+    }
+
+    @Test
+    void testSaveProductBatch_NotAnArray_Unsuccessful() throws Exception {
+        mockMvc.perform(post(URL + "/saveBatch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(savedProduct)))
+                .andExpect(status().isBadRequest());
+        verify(productService, never()).saveProductBatch(any());
+    }
+
     @Test
     void testEditProductById_Successful() throws Exception {
         when(categoryService.isCategoryPresent(updatedProduct.getCategoryId())).thenReturn(true);
@@ -202,6 +433,55 @@ public class ProductControllerTest {
         verify(productService, times(0)).editProduct(anyLong(), any());
     }
 
+    @Test
+    void testPatchProductById_Successful() throws Exception {
+        ProductPatch productPatch = new ProductPatch(null, null, 5.49, null, null);
+        when(productService.patchProduct(1L, productPatch)).thenReturn(true);
+        mockMvc.perform(patch(URL4 + "/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"price\": 5.49}"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Product entry with ID 1 updated"));
+        verify(productService, times(1)).patchProduct(1L, productPatch);
+        verify(categoryService, never()).isCategoryPresent(anyLong());
+    }
+
+    @Test
+    void testPatchProductById_NonExistingId_Unsuccessful() throws Exception {
+        when(productService.patchProduct(any(), any())).thenReturn(false);
+        mockMvc.perform(patch(URL4 + "/99")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\": 3}"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string("Product not found with ID: 99"));
+    }
+
+    @Test
+    void testPatchProductById_CategoryNotFound_Unsuccessful() throws Exception {
+        when(categoryService.isCategoryPresent(99L)).thenReturn(false);
+        mockMvc.perform(patch(URL4 + "/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"categoryId\": 99}"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string("Category not found with ID: 99"));
+        verify(productService, never()).patchProduct(any(), any());
+    }
+
+    @Test
+    void testPatchProductById_EmptyOrBlank_Unsuccessful() throws Exception {
+        mockMvc.perform(patch(URL4 + "/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("No field to change provided"));
+        mockMvc.perform(patch(URL4 + "/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \" \"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Validation failed"));
+        verify(productService, never()).patchProduct(any(), any());
+    }
+
     @Test
     void testDeleteProduct_Successful() throws Exception {
         when(productService.isProductPresent(1L)).thenReturn(true);
@@ -220,10 +500,106 @@ public class ProductControllerTest {
         verify(productService, never()).deleteProductById(99L);
     }
 
+    @Test
+    void testReserveStock_Successful() throws Exception {
+        when(productService.reserveStock(1L, 2)).thenReturn(true);
+        mockMvc.perform(post(URL + "/reserve/1").param("quantity", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Reserved 2 of Product with ID 1"));
+        verify(productService, never()).isProductPresent(anyLong());
+    }
+
+    @Test
+    void testReserveStock_NotEnoughStock_Unsuccessful() throws Exception {
+        when(productService.reserveStock(1L, 200)).thenReturn(false);
+        when(productService.isProductPresent(1L)).thenReturn(true);
+        mockMvc.perform(post(URL + "/reserve/1").param("quantity", "200"))
+                .andExpect(status().isConflict())
+                .andExpect(content().string("Not enough stock of Product with ID 1"));
+    }
+
+    @Test
+    void testReserveStock_ProductNotFound_Unsuccessful() throws Exception {
+        when(productService.reserveStock(99L, 2)).thenReturn(false);
+        when(productService.isProductPresent(99L)).thenReturn(false);
+        mockMvc.perform(post(URL + "/reserve/99").param("quantity", "2"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string("Product not found with ID: " + 99L));
+    }
+
+    @Test
+    void testReserveStock_InvalidQuantity_Unsuccessful() throws Exception {
+        mockMvc.perform(post(URL + "/reserve/1").param("quantity", "0"))
+                .andExpect(status().isBadRequest());
+        verify(productService, never()).reserveStock(anyLong(), anyInt());
+    }
+
+    @Test
+    void testReserveCart_Successful() throws Exception {
+        StockReservationRequest request = new StockReservationRequest(
+                Arrays.asList(new StockReservation(1L, 2), new StockReservation(2L, 1)));
+        mockMvc.perform(post(URL + "/reserve")
+                        .content(objectMapper.writeValueAsString(request))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        verify(productService, times(1)).reserveCart(request.getItems());
+    }
+
+    @Test
+    void testReserveCart_NotEnoughStock_Unsuccessful() throws Exception {
+        doThrow(new InsufficientStockException(2L, 1)).when(productService).reserveCart(anyList());
+        StockReservationRequest request = new StockReservationRequest(
+                Arrays.asList(new StockReservation(1L, 2), new StockReservation(2L, 1)));
+        mockMvc.perform(post(URL + "/reserve")
+                        .content(objectMapper.writeValueAsString(request))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(HttpStatus.CONFLICT.value()));
+    }
+
+    @Test
+    void testReserveCart_ValidationFailure_Unsuccessful() throws Exception {
+        StockReservationRequest request = new StockReservationRequest(
+                Collections.singletonList(new StockReservation(1L, -1)));
+        mockMvc.perform(post(URL + "/reserve")
+                        .content(objectMapper.writeValueAsString(request))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Validation failed"));
+        verify(productService, never()).reserveCart(anyList());
+    }
+
+    @Test
+    void testReleaseStock_Successful() throws Exception {
+        when(productService.releaseStock(1L, 2)).thenReturn(true);
+        mockMvc.perform(post(URL + "/release/1").param("quantity", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Released 2 of Product with ID 1"));
+    }
+
+    @Test
+    void testReleaseStock_ProductNotFound_Unsuccessful() throws Exception {
+        when(productService.releaseStock(99L, 2)).thenReturn(false);
+        mockMvc.perform(post(URL + "/release/99").param("quantity", "2"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testEditProductById_ConcurrentUpdate_Unsuccessful() throws Exception {
+        when(categoryService.isCategoryPresent(anyLong())).thenReturn(true);
+        when(productService.editProduct(anyLong(), any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(ProductDAO.class, 1L));
+        mockMvc.perform(put(URL4 + "/1")
+                        .content(objectMapper.writeValueAsString(updatedProduct))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(HttpStatus.CONFLICT.value()));
+    }
+
     @Test
     void testGetProductInfo_Successful() throws Exception {
         List<Long> productIds = Arrays.asList(1L, 2L, 3L);
-        Map<Long, Double> productInfo = new HashMap<>();
+        ProductPriceMap productInfo = new ProductPriceMap();
         productInfo.put(1L, 4.99);
         productInfo.put(3L, 4.99);
         when(productService.getProductInfo(productIds)).thenReturn(productInfo);
@@ -236,10 +612,90 @@ public class ProductControllerTest {
         verify(productService, times(1)).getProductInfo(productIds);
     }
 
+    @Test
+    void testGetProductInfo_PricePairs_Successful() throws Exception {
+        List<Long> productIds = Arrays.asList(1L, 2L, 3L);
+        ProductPriceMap productInfo = new ProductPriceMap();
+        productInfo.put(1L, 4.99);
+        productInfo.put(3L, 10.0);
+        when(productService.getProductInfo(productIds)).thenReturn(productInfo);
+        mockMvc.perform(get(URL6)
+                        .param("productIds", "1", "2", "3")
+                        .accept(ProductPricePairsHttpMessageConverter.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(ProductPricePairsHttpMessageConverter.MEDIA_TYPE))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[?(@[0] == 1)][1]").value(4.99))
+                .andExpect(jsonPath("$[?(@[0] == 3)][1]").value(10.0));
+    }
+
+    @Test
+    void testGetProductInfo_AnyMediaType_Json() throws Exception {
+        List<Long> productIds = Collections.singletonList(1L);
+        ProductPriceMap productInfo = new ProductPriceMap();
+        productInfo.put(1L, 4.99);
+        when(productService.getProductInfo(productIds)).thenReturn(productInfo);
+        mockMvc.perform(get(URL6)
+                        .param("productIds", "1")
+                        .accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.1").value(4.99));
+    }
+
+    @Test
+    void testGetAllProducts_Cbor_Successful() throws Exception {
+        when(productService.getAllProducts()).thenReturn(productList);
+        byte[] body = mockMvc.perform(get(URL1)
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        Product[] products = new ObjectMapper(new CBORFactory()).readValue(body, Product[].class);
+        assertEquals(productList.size(), products.length);
+        assertEquals(productList.get(0).getName(), products[0].getName());
+        assertEquals(productList.get(0).getPrice(), products[0].getPrice());
+    }
+
+    @Test
+    void testGetProductById_Smile_Successful() throws Exception {
+        when(productService.findProductById(1L)).thenReturn(Optional.of(product));
+        byte[] body = mockMvc.perform(get(URL2 + "/1")
+                        .accept(new MediaType("application", "x-jackson-smile")))
+                .andExpect(status().isOk())
+                .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse().getContentAsByteArray();
+        Product decodedProduct = new ObjectMapper(new SmileFactory()).readValue(body, Product.class);
+        assertEquals(product.getName(), decodedProduct.getName());
+        assertEquals(product.getCategoryId(), decodedProduct.getCategoryId());
+    }
+
+    @Test
+    void testGetProductInfo_MatchingETag_NotModified() throws Exception {
+        List<Long> productIds = Arrays.asList(1L, 2L, 3L);
+        ProductPriceMap productInfo = new ProductPriceMap();
+        productInfo.put(1L, 4.99);
+        when(productService.getProductInfo(productIds)).thenReturn(productInfo);
+        String etag = mockMvc.perform(get(URL6)
+                        .param("productIds", "1", "2", "3"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get(URL6)
+                        .param("productIds", "1", "2", "3")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        catalogVersions.productChanged(2L);
+        mockMvc.perform(get(URL6)
+                        .param("productIds", "1", "2", "3")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        verify(productService, times(2)).getProductInfo(productIds);
+    }
+
     @Test
     void testGetProductInfo_NoProductsInfoFound_Unsuccessful() throws Exception {
         List<Long> productIds = Arrays.asList(1L, 2L, 3L);
-        Map<Long, Double> emptyProductInfo = new HashMap<>();
+        ProductPriceMap emptyProductInfo = new ProductPriceMap();
         when(productService.getProductInfo(productIds)).thenReturn(emptyProductInfo);
         mockMvc.perform(get(URL6)
                         .param("productIds", "1", "2", "3"))
@@ -248,6 +704,36 @@ public class ProductControllerTest {
         verify(productService, times(1)).getProductInfo(productIds);
     }
 
+    @Test
+    void testGetProductInfoForIds_Successful() throws Exception {
+        List<Long> productIds = Arrays.asList(1L, 2L, 3L);
+        ProductPriceMap productInfo = new ProductPriceMap();
+        productInfo.put(1L, 4.99);
+        when(productService.getProductInfo(productIds)).thenReturn(productInfo);
+        mockMvc.perform(post(URL6)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(productIds)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.1").value(4.99));
+        verify(productService, times(1)).getProductInfo(productIds);
+    }
+
+    @Test
+    void testGetProductInfoForIds_ManyIdsNotFound_MessageAbbreviated() throws Exception {
+        List<Long> productIds = new ArrayList<>();
+        for (long id = 1; id <= 10_000; id++) {
+            productIds.add(id);
+        }
+        when(productService.getProductInfo(productIds)).thenReturn(new ProductPriceMap());
+        mockMvc.perform(post(URL6)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(productIds)))
+                .andExpect(status().isNotFound())
+                .andExpect(header().string("Message", "No productInfo found for the provided product IDs: "
+                        + "[1, 2, 3, 4, 5, 6, 7, 8, 9, 10, ... (10000 in total)]. list size: 0"));
+    }
+
     private Product createProduct() {
         return new Product(1L, "Radio new", "small new radio", 4.99, 4, 1L);
     }
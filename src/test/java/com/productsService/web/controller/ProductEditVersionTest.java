@@ -0,0 +1,97 @@
+package com.productsService.web.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.productsService.model.Category;
+import com.productsService.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Edits products through the whole stack, so the version of the edit is checked by the database.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ProductEditVersionTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public static final String URL = "/api/v1/products";
+
+    private long categoryId;
+    private long productId;
+    private long version;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        categoryId = objectMapper.readTree(mockMvc.perform(post("/api/v1/category/save")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Category(null, "Category " + UUID.randomUUID()))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+        JsonNode product = objectMapper.readTree(mockMvc.perform(post(URL + "/save")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new Product(null, "Radio " + UUID.randomUUID(), "small radio", 4.99, 10, categoryId))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString());
+        productId = product.get("id").asLong();
+        version = product.get("version").asLong();
+    }
+
+    @Test
+    void testEditProduct_VersionBeforeReservation_Conflict() throws Exception {
+        mockMvc.perform(post(URL + "/reserve/" + productId).param("quantity", "3"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(put(URL + "/edit/" + productId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(editedProduct(version))))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(get(URL + "/getById/" + productId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.price").value(4.99))
+                .andExpect(jsonPath("$.quantity").value(7));
+    }
+
+    @Test
+    void testEditProduct_CurrentVersion_Updated() throws Exception {
+        mockMvc.perform(post(URL + "/reserve/" + productId).param("quantity", "3"))
+                .andExpect(status().isOk());
+        long currentVersion = objectMapper.readTree(mockMvc.perform(get(URL + "/getById/" + productId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).get("version").asLong();
+        assertEquals(version + 1, currentVersion);
+
+        mockMvc.perform(put(URL + "/edit/" + productId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(editedProduct(currentVersion))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.price").value(5.99))
+                .andExpect(jsonPath("$.quantity").value(7))
+                .andExpect(jsonPath("$.version").value(currentVersion + 1));
+    }
+
+    private Product editedProduct(long version) {
+        Product product = new Product(null, "Radio " + UUID.randomUUID(), "small radio", 5.99, 7, categoryId);
+        product.setVersion(version);
+        return product;
+    }
+}
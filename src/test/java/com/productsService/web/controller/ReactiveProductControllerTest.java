@@ -0,0 +1,145 @@
+package com.productsService.web.controller;
+
+import com.productsService.business.service.ReactiveProductService;
+import com.productsService.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("reactive")
+public class ReactiveProductControllerTest {
+    @MockBean
+    private ReactiveProductService reactiveProductService;
+    @Autowired
+    private MockMvc mockMvc;
+
+    public static final String URL = "/api/v2/products";
+
+    private Product product;
+    private List<Product> productList;
+
+    @BeforeEach
+    public void init() {
+        product = new Product(1L, "Radio new", "small new radio", 4.99, 4, 1L);
+        productList = Arrays.asList(product, new Product(2L, "TV", "big TV", 399.0, 2, 1L));
+    }
+
+    @Test
+    void testGetProductById_ExistingId_Successful() throws Exception {
+        when(reactiveProductService.findProductById(1L)).thenReturn(Mono.just(product));
+        MvcResult result = mockMvc.perform(get(URL + "/getById/1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1L))
+                .andExpect(jsonPath("$.name").value(product.getName()));
+    }
+
+    @Test
+    void testGetProductById_NonExistingId_UnSuccessful() throws Exception {
+        when(reactiveProductService.findProductById(99L)).thenReturn(Mono.empty());
+        MvcResult result = mockMvc.perform(get(URL + "/getById/99"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetProductsPage_Successful() throws Exception {
+        when(reactiveProductService.getProductsPage(1L, 2)).thenReturn(Flux.fromIterable(productList));
+        MvcResult result = mockMvc.perform(get(URL + "/allProducts")
+                        .param("afterId", "1")
+                        .param("limit", "2")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].id").value(2L));
+        verify(reactiveProductService, never()).streamProducts();
+    }
+
+    @Test
+    void testGetProductsPage_InvalidLimit_Unsuccessful() throws Exception {
+        mockMvc.perform(get(URL + "/allProducts").param("limit", "0").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        verify(reactiveProductService, never()).getProductsPage(anyLong(), anyInt());
+    }
+
+    @Test
+    void testStreamProducts_Ndjson_Successful() throws Exception {
+        when(reactiveProductService.streamProducts()).thenReturn(Flux.fromIterable(productList));
+        MvcResult result = mockMvc.perform(get(URL + "/allProducts").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":1,\"name\":\"Radio new\",\"description\":\"small new radio\",\"price\":4.99,\"quantity\":4,\"categoryId\":1}\n"
+                        + "{\"id\":2,\"name\":\"TV\",\"description\":\"big TV\",\"price\":399.0,\"quantity\":2,\"categoryId\":1}\n"));
+        verify(reactiveProductService, times(1)).streamProducts();
+    }
+
+    @Test
+    void testGetProductInfo_Successful() throws Exception {
+        Map<Long, Double> productInfo = new HashMap<>();
+        productInfo.put(1L, 4.99);
+        productInfo.put(2L, 399.0);
+        when(reactiveProductService.getProductInfo(Arrays.asList(1L, 2L))).thenReturn(Mono.just(productInfo));
+        MvcResult result = mockMvc.perform(get(URL + "/getProductInfo").param("productIds", "1,2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.1").value(4.99))
+                .andExpect(jsonPath("$.2").value(399.0));
+    }
+
+    @Test
+    void testGetProductInfoForIds_NoProductsInfoFound_Unsuccessful() throws Exception {
+        when(reactiveProductService.getProductInfo(Collections.singletonList(99L))).thenReturn(Mono.just(Collections.emptyMap()));
+        MvcResult result = mockMvc.perform(post(URL + "/getProductInfo")
+                        .content("[99]")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound());
+    }
+}